@@ -0,0 +1,129 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank.bench;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import com.sharethis.textrank.Graph;
+import com.sharethis.textrank.LanguageModel;
+import com.sharethis.textrank.Sentence;
+
+
+/**
+ * Inputs shared by the benchmarks: the test documents, or synthetic
+ * documents of a given size resampled from their sentences.
+ */
+
+public class BenchInput {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static long SEED = 20091028L;
+
+
+    /**
+     * Load a test document by name (e.g., "kill.txt"), or if
+     * <code>synthetic_bytes</code> is positive, a synthetic document
+     * of about that size, built by drawing sentences from it at
+     * random with a fixed seed.
+     */
+
+    public static String load(final String source, final int synthetic_bytes) throws Exception {
+        final String text = readResource("/" + source);
+
+        if (synthetic_bytes <= 0) {
+            return text;
+        }
+
+        final LanguageModel lang = LanguageModel.buildLanguage(langCode(source));
+        final String[] sentences = lang.splitParagraph(text);
+        final Random random = new Random(SEED);
+        final StringBuilder sb = new StringBuilder(synthetic_bytes + 1024);
+
+        while (sb.length() < synthetic_bytes) {
+            sb.append(sentences[random.nextInt(sentences.length)]).append(' ');
+        }
+
+        return sb.toString();
+    }
+
+
+    /**
+     * Determine the language of a test document from its name.
+     */
+
+    public static String langCode(final String source) {
+        return source.contains("_nl") ? "nl" : "en";
+    }
+
+
+    /**
+     * Split and tag a text into sentences mapped onto the given graph,
+     * as PASS 1 does.
+     */
+
+    public static List<Sentence> mapSentences(final LanguageModel lang, final String text, final Graph graph) throws Exception {
+        final List<Sentence> s_list = new ArrayList<>();
+
+        for (String sent_text : lang.splitParagraph(text)) {
+            final Sentence s = new Sentence(sent_text.trim());
+            s.mapTokens(lang, graph);
+            s_list.add(s);
+        }
+
+        return s_list;
+    }
+
+
+    /**
+     * Read a resource from the classpath as UTF-8 text.
+     */
+
+    protected static String readResource(final String name) {
+        final InputStream in = BenchInput.class.getResourceAsStream(name);
+
+        if (in == null) {
+            throw new IllegalArgumentException("no such input: " + name);
+        }
+
+        try (Scanner scanner = new Scanner(in, "UTF-8")) {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+}
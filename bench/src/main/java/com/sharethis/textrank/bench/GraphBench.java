@@ -0,0 +1,140 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sharethis.textrank.Graph;
+import com.sharethis.textrank.LanguageModel;
+import com.sharethis.textrank.NGram;
+import com.sharethis.textrank.Node;
+import com.sharethis.textrank.RankReport;
+import com.sharethis.textrank.Sentence;
+
+
+/**
+ * Graph construction and ranking: PASS 1 mapping of tokens onto the
+ * graph, PASS 2 rank iteration, selection of the top keywords and
+ * collection of n-grams.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GraphBench {
+
+    @Param({"kill.txt", "good_nl.txt"})
+    public String source;
+
+    @Param({"0"})
+    public int synthetic_bytes;
+
+    protected LanguageModel lang;
+    protected String[] sentences;
+    protected Graph graph;
+    protected List<Sentence> s_list;
+    protected int max_results;
+
+
+    @Setup
+    public void setup() throws Exception {
+        lang = LanguageModel.buildLanguage(BenchInput.langCode(source));
+
+        final String text = BenchInput.load(source, synthetic_bytes);
+        sentences = lang.splitParagraph(text);
+
+        graph = new Graph();
+        s_list = BenchInput.mapSentences(lang, text, graph);
+        max_results = (int) Math.round((double) graph.size() * Graph.KEYWORD_REDUCTION_FACTOR);
+
+        graph.runTextRank();
+        graph.sortResults(max_results);
+    }
+
+
+    @Benchmark
+    public Graph mapTokens() throws Exception {
+        final Graph g = new Graph();
+
+        for (String sent_text : sentences) {
+            new Sentence(sent_text.trim()).mapTokens(lang, g);
+        }
+
+        return g;
+    }
+
+
+    /**
+     * Rank from the initial ranks each time, so this includes a
+     * linear reset of the graph, which is small next to the sweeps.
+     */
+
+    @Benchmark
+    public RankReport runTextRank() {
+        for (Node n : graph.values()) {
+            n.rank = 1.0D;
+        }
+
+        return graph.runTextRank();
+    }
+
+
+    @Benchmark
+    public Graph sortResults() {
+        graph.sortResults(max_results);
+
+        return graph;
+    }
+
+
+    @Benchmark
+    public Graph collectNGrams() throws Exception {
+        return NGram.collectNGrams(lang, s_list, graph.getRankThreshold());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sharethis.textrank.LanguageModel;
+
+
+/**
+ * PASS 1 tools from OpenNLP: sentence splitting, tokenizing and
+ * part-of-speech tagging, over the whole document.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LanguageModelBench {
+
+    @Param({"kill.txt", "good_nl.txt"})
+    public String source;
+
+    @Param({"0"})
+    public int synthetic_bytes;
+
+    protected LanguageModel lang;
+    protected String text;
+    protected String[] sentences;
+    protected String[][] tokens;
+
+
+    @Setup
+    public void setup() throws Exception {
+        lang = LanguageModel.buildLanguage(BenchInput.langCode(source));
+        text = BenchInput.load(source, synthetic_bytes);
+        sentences = lang.splitParagraph(text);
+        tokens = new String[sentences.length][];
+
+        for (int i = 0; i < sentences.length; i++) {
+            tokens[i] = lang.tokenizeSentence(sentences[i]);
+        }
+    }
+
+
+    @Benchmark
+    public String[] splitParagraph() {
+        return lang.splitParagraph(text);
+    }
+
+
+    @Benchmark
+    public int tokenizeSentence() {
+        int count = 0;
+
+        for (String sentence : sentences) {
+            count += lang.tokenizeSentence(sentence).length;
+        }
+
+        return count;
+    }
+
+
+    @Benchmark
+    public int tagTokens() {
+        int count = 0;
+
+        for (String[] token_list : tokens) {
+            count += lang.tagTokens(token_list).length;
+        }
+
+        return count;
+    }
+}
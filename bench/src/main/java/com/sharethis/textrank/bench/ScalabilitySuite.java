@@ -0,0 +1,203 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank.bench;
+
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.sharethis.textrank.LanguageModel;
+import com.sharethis.textrank.TextRankRun;
+import com.sharethis.textrank.WordNet;
+
+
+/**
+ * Characterize how TextRank scales with document size: run it over
+ * synthetic documents from 1 KB to 10 MB and write one CSV row per
+ * size, with the time of each pass, the graph sizes, the rank
+ * iterations and the peak heap, so that runs of different versions
+ * can be diffed. Sizes are given in chars; each row reports both the
+ * chars and the UTF-8 bytes of the document, and times come from the
+ * nanosecond timers, in fractional milliseconds.
+ *
+ * Usage: ScalabilitySuite [source [output.csv [chars...]]]
+ *
+ * e.g.:
+ * <pre>
+ * ./activator "bench/runMain com.sharethis.textrank.bench.ScalabilitySuite good_nl.txt scale_nl.csv"
+ * </pre>
+ */
+
+public class ScalabilitySuite {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int[] DEFAULT_SIZES = { 1 << 10, 10 << 10, 100 << 10, 1 << 20, 10 << 20 };
+    public final static String[] PASSES = { "construct_graph", "basic_textrank", "augment_graph", "ngram_textrank", "normalize_ranks" };
+
+
+    public static void main(final String[] args) throws Exception {
+        final String source = (args.length > 0) ? args[0] : "kill.txt";
+        final String output = (args.length > 1) ? args[1] : null;
+        int[] sizes = DEFAULT_SIZES;
+
+        if (args.length > 2) {
+            sizes = new int[args.length - 2];
+
+            for (int i = 2; i < args.length; i++) {
+                sizes[i - 2] = Integer.parseInt(args[i]);
+            }
+        }
+
+        final Writer writer = (output != null) ? new FileWriter(output) : new PrintWriter(System.out);
+
+        try (PrintWriter out = new PrintWriter(writer)) {
+            run(source, sizes, out);
+        }
+    }
+
+
+    /**
+     * Run each size once, after warming up on the smallest size.
+     */
+
+    public static void run(final String source, final int[] sizes, final PrintWriter out) throws Exception {
+        final String lang_code = BenchInput.langCode(source);
+        final LanguageModel lang = LanguageModel.buildLanguage(lang_code);
+        final WordNet wordNet = "en".equals(lang_code) ? new WordNet() : null;
+
+        final int[] sorted = Arrays.copyOf(sizes, sizes.length);
+        Arrays.sort(sorted);
+
+        new TextRankRun(lang, wordNet, BenchInput.load(source, sorted[0])).call();
+
+        final List<String> columns = new ArrayList<>();
+        columns.add("source");
+        columns.add("chars");
+        columns.add("utf8_bytes");
+        columns.add("sentences");
+
+        for (String pass : PASSES) {
+            columns.add(pass + "_ms");
+        }
+
+        columns.addAll(Arrays.asList("total_ms", "graph_nodes", "ngram_nodes", "keyword_iterations", "ngram_iterations", "peak_heap_bytes"));
+        out.println(String.join(",", columns));
+        out.flush();
+
+        for (int chars : sorted) {
+            final String text = BenchInput.load(source, chars);
+
+            System.gc();
+            resetPeakHeap();
+
+            final long start = System.nanoTime();
+            final TextRankRun run = new TextRankRun(lang, wordNet, text).call();
+            final long total_nanos = System.nanoTime() - start;
+
+            final List<String> row = new ArrayList<>();
+            row.add(source);
+            row.add(String.valueOf(text.length()));
+            row.add(String.valueOf(text.getBytes(StandardCharsets.UTF_8).length));
+            row.add(String.valueOf(lang.splitParagraph(text).length));
+
+            final Map<String, Long> pass_nanos = run.getMetrics().pass_nanos;
+
+            for (String pass : PASSES) {
+                final Long nanos = pass_nanos.get(pass);
+                row.add((nanos != null) ? formatMillis(nanos) : "");
+            }
+
+            row.add(formatMillis(total_nanos));
+            row.add(String.valueOf(run.getGraph().size()));
+            row.add(String.valueOf(run.getNGramSubgraph().size()));
+            row.add(String.valueOf(run.getKeywordReport().iterations));
+            row.add(String.valueOf(run.getNGramReport().iterations));
+            row.add(String.valueOf(getPeakHeap()));
+
+            out.println(String.join(",", row));
+            out.flush();
+        }
+    }
+
+
+    /**
+     * Format nanoseconds as milliseconds, to the microsecond.
+     */
+
+    protected static String formatMillis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1.0e6D);
+    }
+
+
+    /**
+     * Reset the peak usage of each heap memory pool.
+     */
+
+    protected static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+
+    /**
+     * @return the sum of the peak usage of each heap memory pool
+     * since the last reset, which bounds the peak heap from above
+     */
+
+    protected static long getPeakHeap() {
+        long peak = 0L;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        return peak;
+    }
+}
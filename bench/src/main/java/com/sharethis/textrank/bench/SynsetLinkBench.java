@@ -0,0 +1,127 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.extjwnl.data.POS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sharethis.textrank.Graph;
+import com.sharethis.textrank.KeyWord;
+import com.sharethis.textrank.LanguageModel;
+import com.sharethis.textrank.Node;
+import com.sharethis.textrank.SynsetLink;
+import com.sharethis.textrank.WordNet;
+
+
+/**
+ * PASS 3 lookups of every noun and adjective keyword in WordNet,
+ * which only runs for English.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SynsetLinkBench {
+
+    @Param({"kill.txt"})
+    public String source;
+
+    @Param({"0"})
+    public int synthetic_bytes;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    protected WordNet wordNet;
+    protected List<Node> nouns = new ArrayList<>();
+    protected List<Node> adjectives = new ArrayList<>();
+
+
+    @Setup
+    public void setup() throws Exception {
+        final LanguageModel lang = LanguageModel.buildLanguage(BenchInput.langCode(source));
+        final Graph graph = new Graph();
+
+        BenchInput.mapSentences(lang, BenchInput.load(source, synthetic_bytes), graph);
+        wordNet = new WordNet();
+
+        if (!cached) {
+            wordNet.setCache(null);
+        }
+
+        for (Node n : graph.values()) {
+            final KeyWord kw = (KeyWord) n.value;
+
+            if (lang.isNoun(kw.pos)) {
+                nouns.add(n);
+            }
+            else if (lang.isAdjective(kw.pos)) {
+                adjectives.add(n);
+            }
+        }
+    }
+
+
+    @Benchmark
+    public Graph addKeyWord() throws Exception {
+        final Graph synset_subgraph = new Graph();
+
+        for (Node n : nouns) {
+            SynsetLink.addKeyWord(synset_subgraph, n, ((KeyWord) n.value).text, POS.NOUN, wordNet);
+        }
+
+        for (Node n : adjectives) {
+            SynsetLink.addKeyWord(synset_subgraph, n, ((KeyWord) n.value).text, POS.ADJECTIVE, wordNet);
+        }
+
+        return synset_subgraph;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.common;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+
+/**
+ * Bloom filter over strings: a compact set which answers "maybe" or
+ * "definitely not", with a false-positive rate set by its size. Not
+ * thread-safe while being filled; lookups on a filled filter are.
+ */
+
+public class BloomFilter {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int MAGIC = 0x424c4f4d;
+    public final static int VERSION = 1;
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final long[] bits;
+    protected final long bit_count;
+    protected final int hash_count;
+    protected long size = 0L;
+
+
+    /**
+     * Constructor.
+     *
+     * @param bit_count number of bits, rounded up to a multiple of 64
+     * @param hash_count number of hash functions
+     */
+
+    public BloomFilter(final long bit_count, final int hash_count) {
+        if ((bit_count <= 0L) || (hash_count <= 0)) {
+            throw new IllegalArgumentException("bit_count and hash_count must be positive");
+        }
+
+        this.bits = new long[(int) ((bit_count + 63L) >>> 6)];
+        this.bit_count = 64L * bits.length;
+        this.hash_count = hash_count;
+    }
+
+
+    /**
+     * Factory method, for the optimal size and number of hash
+     * functions for the expected number of entries and rate of false
+     * positives.
+     */
+
+    public static BloomFilter create(final long expected, final double fpp) {
+        if ((fpp <= 0.0D) || (fpp >= 1.0D)) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1");
+        }
+
+        final double ln2 = Math.log(2.0D);
+        final long m = (long) Math.ceil(-Math.max(1L, expected) * Math.log(fpp) / (ln2 * ln2));
+        final int k = (int) Math.max(1L, Math.round((double) m / Math.max(1L, expected) * ln2));
+
+        return new BloomFilter(m, k);
+    }
+
+
+    /**
+     * Factory method, for the given memory budget: the number of
+     * hash functions which minimizes false positives at the expected
+     * number of entries.
+     */
+
+    public static BloomFilter withBytes(final long expected, final long max_bytes) {
+        final long m = 8L * max_bytes;
+        final int k = (int) Math.max(1L, Math.round((double) m / Math.max(1L, expected) * Math.log(2.0D)));
+
+        return new BloomFilter(m, k);
+    }
+
+
+    public void put(final String text) {
+        final long h1 = hash(text);
+        final long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1L;
+
+        for (int i = 0; i < hash_count; i++) {
+            final long bit = Long.remainderUnsigned(h1 + i * h2, bit_count);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+
+        size++;
+    }
+
+
+    /**
+     * @return false if the text was definitely never put, true if it
+     * may have been
+     */
+
+    public boolean mightContain(final String text) {
+        final long h1 = hash(text);
+        final long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1L;
+
+        for (int i = 0; i < hash_count; i++) {
+            final long bit = Long.remainderUnsigned(h1 + i * h2, bit_count);
+
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * @return the number of entries put
+     */
+
+    public long size() {
+        return size;
+    }
+
+
+    public long getBitCount() {
+        return bit_count;
+    }
+
+
+    public int getHashCount() {
+        return hash_count;
+    }
+
+
+    /**
+     * @return the expected rate of false positives at the current
+     * number of entries
+     */
+
+    public double getExpectedFpp() {
+        return Math.pow(1.0D - Math.exp(-(double) hash_count * size / bit_count), hash_count);
+    }
+
+
+    /**
+     * Serialize to a stream.
+     */
+
+    public void writeTo(final DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(hash_count);
+        out.writeLong(size);
+        out.writeInt(bits.length);
+
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+
+    /**
+     * Deserialize from a stream.
+     */
+
+    public static BloomFilter readFrom(final DataInputStream in) throws IOException {
+        if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+            throw new IOException("not a Bloom filter, or an unknown version");
+        }
+
+        final int k = in.readInt();
+        final long n = in.readLong();
+        final int words = in.readInt();
+        final BloomFilter filter = new BloomFilter(64L * words, k);
+
+        for (int i = 0; i < words; i++) {
+            filter.bits[i] = in.readLong();
+        }
+
+        filter.size = n;
+        return filter;
+    }
+
+
+    /**
+     * 64-bit FNV-1a over the chars, then a finalizer to spread the
+     * bits.
+     */
+
+    protected static long hash(final String text) {
+        long h = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < text.length(); i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        return mix(h);
+    }
+
+
+    protected static long mix(final long h) {
+        long x = h;
+
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+
+        return x;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.common;
+
+import java.beans.ConstructorProperties;
+
+
+/**
+ * Snapshot of the counts of a cache, which JMX maps onto one
+ * composite attribute per cache.
+ */
+
+public class CacheStats {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static CacheStats EMPTY = new CacheStats(0L, 0L, 0L, 0L, 0L);
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final long hits;
+    protected final long misses;
+    protected final long entries;
+    protected final long weight;
+    protected final long evictions;
+
+
+    /**
+     * Constructor.
+     */
+
+    @ConstructorProperties({ "hits", "misses", "entries", "weight", "evictions" })
+    public CacheStats(final long hits, final long misses, final long entries, final long weight, final long evictions) {
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = entries;
+        this.weight = weight;
+        this.evictions = evictions;
+    }
+
+
+    public long getHits() {
+        return hits;
+    }
+
+
+    public long getMisses() {
+        return misses;
+    }
+
+
+    public double getHitRate() {
+        final long lookups = hits + misses;
+
+        return (lookups == 0L) ? 0.0D : (double) hits / (double) lookups;
+    }
+
+
+    public long getEntries() {
+        return entries;
+    }
+
+
+    /**
+     * @return the total weight of the entries, or the number of
+     * entries if the cache has no weigher
+     */
+
+    public long getWeight() {
+        return weight;
+    }
+
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+
+    /**
+     * Serialize to a string.
+     */
+
+    public String toString() {
+        return "hits: " + hits + " misses: " + misses + " entries: " + entries + " weight: " + weight + " evictions: " + evictions;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Thread-safe histogram of non-negative long values (e.g., latencies
+ * in nanoseconds) in log-linear buckets: each power of two is split
+ * into 8 buckets, so percentiles come within 12.5% of the recorded
+ * values, in a fixed amount of memory.
+ */
+
+public class Histogram {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int SUB_BUCKET_BITS = 3;
+    public final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    public final static int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    protected final LongAdder count = new LongAdder();
+    protected final LongAdder sum = new LongAdder();
+    protected final AtomicLong max = new AtomicLong(0L);
+
+
+    /**
+     * Record one value; negative values count as zero.
+     */
+
+    public void record(final long value) {
+        final long v = Math.max(0L, value);
+
+        counts.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+
+        long m = max.get();
+
+        while ((v > m) && !max.compareAndSet(m, v)) {
+            m = max.get();
+        }
+    }
+
+
+    public long getCount() {
+        return count.sum();
+    }
+
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+
+    public long getMax() {
+        return max.get();
+    }
+
+
+    public double getMean() {
+        final long n = count.sum();
+
+        return (n == 0L) ? 0.0D : (double) sum.sum() / (double) n;
+    }
+
+
+    /**
+     * @return an upper bound for the given quantile (e.g., 0.99) of
+     * the recorded values, or 0 if nothing has been recorded
+     */
+
+    public long getPercentile(final double quantile) {
+        final long n = count.sum();
+
+        if (n == 0L) {
+            return 0L;
+        }
+
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * (double) n));
+        long seen = 0L;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+
+    /**
+     * Forget all the recorded values.
+     */
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+
+        count.reset();
+        sum.reset();
+        max.set(0L);
+    }
+
+
+    /**
+     * Map a value onto its bucket.
+     */
+
+    protected static int bucketOf(final long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(v);
+        final int sub = (int) (v >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+
+    /**
+     * @return the largest value which maps onto the given bucket
+     */
+
+    protected static long upperBound(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long sub = bucket % SUB_BUCKETS;
+        final long width = 1L << (exponent - SUB_BUCKET_BITS);
+
+        final long upper = ((SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+
+        return (upper < 0L) ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.common;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Thread-safe least-recently-used cache, bounded by a number of
+ * entries and/or a total weight (e.g., estimated bytes), with an
+ * optional time-to-live per entry. Counts hits, misses, evictions
+ * and expirations.
+ */
+
+public class LruCache<K, V> {
+
+    /**
+     * Estimate the weight of an entry, e.g., in bytes.
+     */
+
+    public interface Weigher<K, V> {
+        long weigh(K key, V value);
+    }
+
+
+    /**
+     * Public definitions.
+     */
+
+    public final static long UNBOUNDED = Long.MAX_VALUE;
+
+
+    /**
+     * Protected members.
+     */
+
+    protected static class Item<V> {
+        final V value;
+        final long weight;
+        final long expires_at;
+
+        Item(final V value, final long weight, final long expires_at) {
+            this.value = value;
+            this.weight = weight;
+            this.expires_at = expires_at;
+        }
+    }
+
+    protected final long max_entries;
+    protected final long max_weight;
+    protected final long ttl_nanos;
+    protected final Weigher<? super K, ? super V> weigher;
+    protected final LinkedHashMap<K, Item<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    protected long weight = 0L;
+    protected long hits = 0L;
+    protected long misses = 0L;
+    protected long evictions = 0L;
+    protected long expirations = 0L;
+
+
+    /**
+     * Constructor.
+     *
+     * @param max_entries bound on the number of entries, or UNBOUNDED
+     * @param max_weight bound on the total weight, or UNBOUNDED
+     * @param ttl_millis time-to-live of each entry, or 0 for none
+     * @param weigher estimates the weight of each entry, or null to
+     * weigh each as 1
+     */
+
+    public LruCache(final long max_entries, final long max_weight, final long ttl_millis, final Weigher<? super K, ? super V> weigher) {
+        this.max_entries = max_entries;
+        this.max_weight = max_weight;
+        this.ttl_nanos = (ttl_millis > 0L) ? ttl_millis * 1000000L : 0L;
+        this.weigher = weigher;
+    }
+
+
+    /**
+     * Factory method, for a cache bounded by the number of entries.
+     */
+
+    public static <K, V> LruCache<K, V> byEntries(final long max_entries, final long ttl_millis) {
+        return new LruCache<>(max_entries, UNBOUNDED, ttl_millis, null);
+    }
+
+
+    /**
+     * Factory method, for a cache bounded by total weight.
+     */
+
+    public static <K, V> LruCache<K, V> byWeight(final long max_weight, final long ttl_millis, final Weigher<? super K, ? super V> weigher) {
+        return new LruCache<>(UNBOUNDED, max_weight, ttl_millis, weigher);
+    }
+
+
+    /**
+     * @return the cached value, or null if missing or expired
+     */
+
+    public synchronized V get(final K key) {
+        final Item<V> item = map.get(key);
+
+        if (item == null) {
+            misses++;
+            return null;
+        }
+
+        if ((ttl_nanos > 0L) && (System.nanoTime() - item.expires_at > 0L)) {
+            map.remove(key);
+            weight -= item.weight;
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return item.value;
+    }
+
+
+    /**
+     * Cache a value, evicting the least recently used entries as
+     * needed. A value heavier than the whole cache does not get
+     * cached.
+     */
+
+    public synchronized void put(final K key, final V value) {
+        final long w = (weigher != null) ? weigher.weigh(key, value) : 1L;
+        final Item<V> previous = map.remove(key);
+
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+
+        if (w > max_weight) {
+            return;
+        }
+
+        map.put(key, new Item<>(value, w, System.nanoTime() + ttl_nanos));
+        weight += w;
+
+        final Iterator<Map.Entry<K, Item<V>>> it = map.entrySet().iterator();
+
+        while (((map.size() > max_entries) || (weight > max_weight)) && it.hasNext()) {
+            final Item<V> eldest = it.next().getValue();
+            it.remove();
+            weight -= eldest.weight;
+            evictions++;
+        }
+    }
+
+
+    public synchronized V remove(final K key) {
+        final Item<V> item = map.remove(key);
+
+        if (item == null) {
+            return null;
+        }
+
+        weight -= item.weight;
+        return item.value;
+    }
+
+
+    public synchronized void clear() {
+        map.clear();
+        weight = 0L;
+    }
+
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+
+    /**
+     * @return the fraction of lookups which hit, or 0 if none yet
+     */
+
+    public synchronized double getHitRate() {
+        final long lookups = hits + misses;
+
+        return (lookups == 0L) ? 0.0D : (double) hits / (double) lookups;
+    }
+
+
+    /**
+     * @return a consistent snapshot of the counts
+     */
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, map.size(), weight, evictions);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.common;
+
+
+/**
+ * Thread-safe cache split into stripes by key hash, each one an
+ * LruCache with its share of the bound. Threads mostly lock
+ * different stripes, so it suits hot lookups shared by a pool of
+ * workers; the price is that eviction is only least-recently-used
+ * within each stripe.
+ */
+
+public class StripedLruCache<K, V> {
+
+    /**
+     * Protected members.
+     */
+
+    protected final LruCache<K, V>[] stripes;
+
+
+    /**
+     * Constructor.
+     *
+     * @param max_entries bound on the number of entries, overall
+     * @param stripe_count number of stripes, rounded up to a power of
+     * two
+     */
+
+    public StripedLruCache(final long max_entries, final int stripe_count) {
+        this(max_entries, LruCache.UNBOUNDED, stripe_count, null);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param weigher estimates the weight of each entry, or null to
+     * weigh each as 1
+     */
+
+    @SuppressWarnings("unchecked")
+    protected StripedLruCache(final long max_entries, final long max_weight, final int stripe_count, final LruCache.Weigher<? super K, ? super V> weigher) {
+        int n = 1;
+
+        while (n < stripe_count) {
+            n <<= 1;
+        }
+
+        stripes = (LruCache<K, V>[]) new LruCache<?, ?>[n];
+
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new LruCache<>(share(max_entries, n), share(max_weight, n), 0L, weigher);
+        }
+    }
+
+
+    /**
+     * Factory method, for a cache bounded by total weight, split
+     * evenly across the stripes.
+     */
+
+    public static <K, V> StripedLruCache<K, V> byWeight(final long max_weight, final int stripe_count, final LruCache.Weigher<? super K, ? super V> weigher) {
+        return new StripedLruCache<>(LruCache.UNBOUNDED, max_weight, stripe_count, weigher);
+    }
+
+
+    protected static long share(final long bound, final int n) {
+        return (bound == LruCache.UNBOUNDED) ? bound : Math.max(1L, bound / n);
+    }
+
+
+    protected LruCache<K, V> stripe(final Object key) {
+        final int h = key.hashCode();
+
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+
+    /**
+     * @return the cached value, or null if missing
+     */
+
+    public V get(final K key) {
+        return stripe(key).get(key);
+    }
+
+
+    public void put(final K key, final V value) {
+        stripe(key).put(key, value);
+    }
+
+
+    public void clear() {
+        for (LruCache<K, V> cache : stripes) {
+            cache.clear();
+        }
+    }
+
+
+    public int size() {
+        int size = 0;
+
+        for (LruCache<K, V> cache : stripes) {
+            size += cache.size();
+        }
+
+        return size;
+    }
+
+
+    public long getWeight() {
+        long weight = 0L;
+
+        for (LruCache<K, V> cache : stripes) {
+            weight += cache.getWeight();
+        }
+
+        return weight;
+    }
+
+
+    public long getHits() {
+        long hits = 0L;
+
+        for (LruCache<K, V> cache : stripes) {
+            hits += cache.getHits();
+        }
+
+        return hits;
+    }
+
+
+    public long getMisses() {
+        long misses = 0L;
+
+        for (LruCache<K, V> cache : stripes) {
+            misses += cache.getMisses();
+        }
+
+        return misses;
+    }
+
+
+    public long getEvictions() {
+        long evictions = 0L;
+
+        for (LruCache<K, V> cache : stripes) {
+            evictions += cache.getEvictions();
+        }
+
+        return evictions;
+    }
+
+
+    /**
+     * @return the fraction of lookups which hit, or 0 if none yet
+     */
+
+    public double getHitRate() {
+        final long hits = getHits();
+        final long lookups = hits + getMisses();
+
+        return (lookups == 0L) ? 0.0D : (double) hits / (double) lookups;
+    }
+
+
+    /**
+     * @return the counts summed over the stripes, each a consistent
+     * snapshot
+     */
+
+    public CacheStats getStats() {
+        long hits = 0L;
+        long misses = 0L;
+        long entries = 0L;
+        long weight = 0L;
+        long evictions = 0L;
+
+        for (LruCache<K, V> cache : stripes) {
+            final CacheStats stats = cache.getStats();
+
+            hits += stats.getHits();
+            misses += stats.getMisses();
+            entries += stats.getEntries();
+            weight += stats.getWeight();
+            evictions += stats.getEvictions();
+        }
+
+        return new CacheStats(hits, misses, entries, weight, evictions);
+    }
+}
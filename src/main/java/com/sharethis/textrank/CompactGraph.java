@@ -0,0 +1,597 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * A frozen, int-indexed snapshot of a graph in compressed sparse row
+ * (CSR) form, which is what the rank iteration actually walks.
+ *
+ * The adjacency of node <code>i</code> is
+ * <code>neighbors[offsets[i] .. offsets[i + 1])</code>, kept in the
+ * same order as <code>Node.edges</code> so that ranks accumulate
+ * exactly as they would when walking the hash sets directly.
+ *
+ * Edges may carry co-occurrence weights, in which case a node's
+ * degree is the sum of its edge weights and each neighbor passes on
+ * its share scaled by the weight of the edge.
+ *
+ * Nodes reachable through an edge but not part of the node list
+ * (e.g., a long n-gram that only got linked to a synset) are kept as
+ * "external" entries after the first <code>size</code> slots: their
+ * rank and degree contribute to neighbors, but never get updated.
+ *
+ * Each iteration works through fixed blocks of nodes, which may run
+ * in parallel on a fork/join pool. The convergence statistic is
+ * reduced per block and then combined in block order, so the result
+ * does not depend on how many threads took part.
+ */
+
+public class CompactGraph {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int BLOCK_SIZE = 1024;
+
+    /**
+     * Public members.
+     */
+
+    public final Node[] node_list;
+    public final int size;
+    public final int[] offsets;
+    public final int[] neighbors;
+    public final double[] weight;
+    public final double[] degree;
+    public final double[] rank;
+
+    // nodes added since the previous rank run, or whose neighbors
+    // changed since, when warm starting
+
+    public boolean[] fresh = null;
+
+    /**
+     * Protected members.
+     */
+
+    protected final double[] share;
+    protected final double[] next_rank;
+    protected final int block_count;
+    protected final int[] block_n;
+    protected final double[] block_mean;
+    protected final double[] block_m2;
+    protected final double[] block_l1;
+    protected double l1_residual = 0.0D;
+
+
+    /**
+     * Private constructor.
+     */
+
+    private CompactGraph(final Node[] node_list, final int size, final int[] offsets, final int[] neighbors, final double[] weight, final double[] degree) {
+        this.node_list = node_list;
+        this.size = size;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.weight = weight;
+        this.degree = degree;
+        this.rank = new double[node_list.length];
+
+        for (int i = 0; i < node_list.length; i++) {
+            rank[i] = node_list[i].rank;
+        }
+
+        this.share = new double[node_list.length];
+        this.next_rank = new double[size];
+        this.block_count = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        this.block_n = new int[block_count];
+        this.block_mean = new double[block_count];
+        this.block_m2 = new double[block_count];
+        this.block_l1 = new double[block_count];
+    }
+
+
+    /**
+     * Factory method, freezes the current adjacency and ranks of the
+     * given nodes.
+     */
+
+    public static CompactGraph freeze(final Node[] node_list) {
+        return freeze(node_list, null, null);
+    }
+
+
+    /**
+     * Factory method, freezes the current adjacency and ranks of the
+     * given nodes, adding the weighted co-occurrence edges (if any)
+     * after the unweighted links of each node. Weights refer to node
+     * ids interned by the given graph.
+     */
+
+    public static CompactGraph freeze(final Node[] node_list, final EdgeWeights weights, final Graph graph) {
+        final int size = node_list.length;
+
+        for (int i = 0; i < size; i++) {
+            node_list[i].index = i;
+        }
+
+        // map weighted pairs from node ids onto the node list
+
+        int[] index_of_id = null;
+        final int[] weighted_count = new int[size];
+
+        if (weights != null) {
+            // resolve ids through the given graph: a node keeps the
+            // dict_id of the first graph it was put into, e.g., the
+            // n-gram subgraph, which means nothing here
+
+            final int[] id_list = new int[size];
+            int max_id = -1;
+
+            for (int i = 0; i < size; i++) {
+                id_list[i] = graph.getId(node_list[i].key);
+                max_id = Math.max(max_id, id_list[i]);
+            }
+
+            index_of_id = new int[max_id + 1];
+            Arrays.fill(index_of_id, -1);
+
+            for (int i = 0; i < size; i++) {
+                final int id = id_list[i];
+
+                if ((id >= 0) && (graph.getNode(id) == node_list[i])) {
+                    index_of_id[id] = i;
+                }
+            }
+
+            for (int slot = 0; slot < weights.capacity(); slot++) {
+                if (weights.isUsed(slot)) {
+                    final int a = lookup(index_of_id, weights.getLow(slot));
+                    final int b = lookup(index_of_id, weights.getHigh(slot));
+
+                    if ((a >= 0) && (b >= 0)) {
+                        weighted_count[a]++;
+
+                        if (a != b) {
+                            weighted_count[b]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        final ArrayList<Node> external = new ArrayList<>();
+        final IdentityHashMap<Node, Integer> external_index = new IdentityHashMap<>();
+
+        final int[] offsets = new int[size + 1];
+        int edge_count = 0;
+
+        for (int i = 0; i < size; i++) {
+            offsets[i] = edge_count;
+            edge_count += node_list[i].edges.size() + weighted_count[i];
+        }
+
+        offsets[size] = edge_count;
+
+        final int[] neighbors = new int[edge_count];
+        final int[] cursor = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            int e = offsets[i];
+
+            for (Node n2 : node_list[i].edges) {
+                int j = n2.index;
+
+                if ((j < 0) || (j >= size) || (node_list[j] != n2)) {
+                    // stale or missing index, so this neighbor is
+                    // not part of the node list
+
+                    Integer k = external_index.get(n2);
+
+                    if (k == null) {
+                        k = size + external.size();
+                        external_index.put(n2, k);
+                        external.add(n2);
+                    }
+
+                    j = k;
+                }
+
+                neighbors[e++] = j;
+            }
+
+            cursor[i] = e;
+        }
+
+        final Node[] all_nodes = new Node[size + external.size()];
+        System.arraycopy(node_list, 0, all_nodes, 0, size);
+
+        for (int k = 0; k < external.size(); k++) {
+            all_nodes[size + k] = external.get(k);
+        }
+
+        final double[] degree = new double[all_nodes.length];
+
+        for (int j = 0; j < all_nodes.length; j++) {
+            degree[j] = (double) all_nodes[j].edges.size();
+        }
+
+        // append the weighted edges, which also count towards degree
+
+        double[] weight = null;
+
+        if (weights != null) {
+            weight = new double[edge_count];
+            Arrays.fill(weight, 1.0D);
+
+            for (int slot = 0; slot < weights.capacity(); slot++) {
+                if (weights.isUsed(slot)) {
+                    final int a = lookup(index_of_id, weights.getLow(slot));
+                    final int b = lookup(index_of_id, weights.getHigh(slot));
+
+                    if ((a >= 0) && (b >= 0)) {
+                        final double w = (double) weights.getCount(slot);
+
+                        neighbors[cursor[a]] = b;
+                        weight[cursor[a]++] = w;
+                        degree[a] += w;
+
+                        if (a != b) {
+                            neighbors[cursor[b]] = a;
+                            weight[cursor[b]++] = w;
+                            degree[b] += w;
+                        }
+                    }
+                }
+            }
+        }
+
+        return new CompactGraph(all_nodes, size, offsets, neighbors, weight, degree);
+    }
+
+
+    /**
+     * Map a node id onto the node list, or -1 if it is not there.
+     */
+
+    private static int lookup(final int[] index_of_id, final int id) {
+        return (id < index_of_id.length) ? index_of_id[id] : -1;
+    }
+
+
+    /**
+     * Run one Jacobi iteration over all internal nodes, then swap in
+     * the new ranks. When a pool is given, blocks of nodes get
+     * processed in parallel.
+     *
+     * @return standard error of the rank changes in this iteration
+     */
+
+    public double iterate(final ForkJoinPool pool) {
+        final int share_blocks = (rank.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        if (pool == null) {
+            for (int b = 0; b < share_blocks; b++) {
+                computeShares(b);
+            }
+
+            for (int b = 0; b < block_count; b++) {
+                sweepBlock(b);
+            }
+        }
+        else {
+            pool.invoke(new BlockTask(true, 0, share_blocks));
+            pool.invoke(new BlockTask(false, 0, block_count));
+        }
+
+        // combine the per-block statistics, always in block order
+
+        long n = 0L;
+        double mean = 0.0D;
+        double m2 = 0.0D;
+        double l1 = 0.0D;
+
+        for (int b = 0; b < block_count; b++) {
+            final long n_b = block_n[b];
+            final long n_ab = n + n_b;
+            final double delta = block_mean[b] - mean;
+
+            mean += delta * n_b / n_ab;
+            m2 += block_m2[b] + delta * delta * n * n_b / n_ab;
+            n = n_ab;
+            l1 += block_l1[b];
+        }
+
+        l1_residual = l1;
+
+        System.arraycopy(next_rank, 0, rank, 0, size);
+
+        if (n == 0L) {
+            return 0.0D;
+        }
+
+        final double standard_deviation = (n > 1L) ? Math.sqrt(m2 / (double) (n - 1L)) : 0.0D;
+
+        return standard_deviation / Math.sqrt((double) n);
+    }
+
+
+    /**
+     * L1 norm of the rank changes in the last call to iterate().
+     */
+
+    public double getL1Residual() {
+        return l1_residual;
+    }
+
+
+    /**
+     * Calculate the shares for all nodes from the current ranks,
+     * before starting in-place sweeps with relax().
+     */
+
+    public void prepareShares() {
+        final int share_blocks = (rank.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        for (int b = 0; b < share_blocks; b++) {
+            computeShares(b);
+        }
+    }
+
+
+    /**
+     * Run one in-place (Gauss-Seidel) sweep over the internal nodes,
+     * so each node already sees the ranks updated earlier in the same
+     * sweep. The new rank gets blended with the old one by the
+     * relaxation factor omega.
+     *
+     * @return L1 norm of the rank changes in this sweep
+     */
+
+    public double relax(final double omega) {
+        double l1 = 0.0D;
+
+        for (int i = 0; i < size; i++) {
+            final double rank_i = (1.0D - omega) * rank[i] + omega * gatherRank(i);
+
+            l1 += Math.abs(rank[i] - rank_i);
+            rank[i] = rank_i;
+            share[i] = rank_i / degree[i];
+        }
+
+        return l1;
+    }
+
+
+    /**
+     * Relax ranks locally around the fresh nodes, in place: the new
+     * nodes, and those whose neighbors changed. Starting from these, a
+     * node gets recalculated whenever one of its neighbors moved by
+     * more than the tolerance, so the work stays near the changes as
+     * long as they die out there.
+     * Requires prepareShares() first.
+     *
+     * @return number of node updates, or -1 if the budget ran out
+     * before the changes settled
+     */
+
+    public long relaxLocal(final double tolerance, final long budget) {
+        final int[] queue = new int[size];
+        final boolean[] queued = new boolean[size];
+        int head = 0;
+        int count = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (fresh[i]) {
+                count = enqueue(queue, queued, head, count, i);
+            }
+        }
+
+        long updates = 0L;
+
+        while (count > 0) {
+            if (updates >= budget) {
+                return -1L;
+            }
+
+            final int i = queue[head];
+            head = (head + 1) % size;
+            count--;
+            queued[i] = false;
+
+            final double rank_i = gatherRank(i);
+            final double delta = Math.abs(rank[i] - rank_i);
+
+            rank[i] = rank_i;
+            share[i] = rank_i / degree[i];
+            updates++;
+
+            if (delta > tolerance) {
+                for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                    count = enqueue(queue, queued, head, count, neighbors[e]);
+                }
+            }
+        }
+
+        return updates;
+    }
+
+
+    /**
+     * Append an internal node to the circular work queue, unless it is
+     * already waiting there.
+     *
+     * @return the new queue length
+     */
+
+    private int enqueue(final int[] queue, final boolean[] queued, final int head, final int count, final int i) {
+        if ((i < size) && !queued[i]) {
+            queued[i] = true;
+            queue[(head + count) % size] = i;
+
+            return count + 1;
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Calculate the share of rank each node in block <code>b</code>
+     * passes along each of its edges. Computing this once per
+     * iteration replaces the division per edge, while producing the
+     * same values.
+     */
+
+    protected void computeShares(final int b) {
+        final int end = Math.min(rank.length, (b + 1) * BLOCK_SIZE);
+
+        for (int j = b * BLOCK_SIZE; j < end; j++) {
+            share[j] = rank[j] / degree[j];
+        }
+    }
+
+
+    /**
+     * Calculate the next rank for each internal node in block
+     * <code>b</code>, tracking the mean and second moment of the
+     * changes within the block.
+     */
+
+    protected void sweepBlock(final int b) {
+        final int end = Math.min(size, (b + 1) * BLOCK_SIZE);
+        int n = 0;
+        double mean = 0.0D;
+        double m2 = 0.0D;
+        double l1 = 0.0D;
+
+        for (int i = b * BLOCK_SIZE; i < end; i++) {
+            final double rank_i = gatherRank(i);
+            final double x = Math.abs(rank[i] - rank_i);
+            final double delta = x - mean;
+
+            next_rank[i] = rank_i;
+            n++;
+            mean += delta / n;
+            m2 += delta * (x - mean);
+            l1 += x;
+        }
+
+        block_n[b] = n;
+        block_mean[b] = mean;
+        block_m2[b] = m2;
+        block_l1[b] = l1;
+    }
+
+
+    /**
+     * Calculate the next (damped) rank for internal node
+     * <code>i</code>, given the shares from the previous iteration.
+     */
+
+    protected double gatherRank(final int i) {
+        double sum = 0.0D;
+
+        if (weight == null) {
+            for (int e = offsets[i], end = offsets[i + 1]; e < end; e++) {
+                sum += share[neighbors[e]];
+            }
+        }
+        else {
+            for (int e = offsets[i], end = offsets[i + 1]; e < end; e++) {
+                sum += weight[e] * share[neighbors[e]];
+            }
+        }
+
+        sum *= Graph.TEXTRANK_DAMPING_FACTOR;
+        sum += 1.0D - Graph.TEXTRANK_DAMPING_FACTOR;
+
+        return sum;
+    }
+
+
+    /**
+     * Copy the ranks back onto the internal nodes.
+     */
+
+    public void writeBack() {
+        for (int i = 0; i < size; i++) {
+            node_list[i].rank = rank[i];
+        }
+    }
+
+
+    /**
+     * Fork/join task over a range of blocks, either computing shares
+     * or sweeping ranks.
+     */
+
+    private final class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean shares;
+        private final int lo;
+        private final int hi;
+
+        BlockTask(final boolean shares, final int lo, final int hi) {
+            this.shares = shares;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo <= 1) {
+                for (int b = lo; b < hi; b++) {
+                    if (shares) {
+                        computeShares(b);
+                    }
+                    else {
+                        sweepBlock(b);
+                    }
+                }
+            }
+            else {
+                final int mid = (lo + hi) >>> 1;
+                invokeAll(new BlockTask(shares, lo, mid), new BlockTask(shares, mid, hi));
+            }
+        }
+    }
+}
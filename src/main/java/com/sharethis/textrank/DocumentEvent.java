@@ -0,0 +1,104 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event spanning one document, from the start of
+ * PASS 1 to the end of PASS 5, so that slow documents line up with
+ * GC and CPU activity in a recording.
+ */
+
+@Name("com.sharethis.textrank.Document")
+@Label("TextRank Document")
+@Category("TextRank")
+@Description("One document run through all the passes of TextRank")
+@StackTrace(false)
+public class DocumentEvent extends Event {
+
+    @Label("Text Length")
+    @Description("Length of the text in characters")
+    public int text_length;
+
+    @Label("Sentences")
+    public int sentences;
+
+    @Label("Tokens")
+    public int tokens;
+
+    @Label("Graph Nodes")
+    public int graph_nodes;
+
+    @Label("Graph Links")
+    public long graph_links;
+
+    @Label("N-Gram Nodes")
+    public int ngram_nodes;
+
+    @Label("Keyword Iterations")
+    public int keyword_iterations;
+
+    @Label("N-Gram Iterations")
+    public int ngram_iterations;
+
+    @Label("WordNet Lookups")
+    public int wordnet_lookups;
+
+    @Label("WordNet Hits")
+    public int wordnet_hits;
+
+
+    /**
+     * Copy the counts from the metrics of a run.
+     */
+
+    public void set(final int text_length, final RunMetrics metrics) {
+        this.text_length = text_length;
+        this.sentences = metrics.sentences;
+        this.tokens = metrics.tokens;
+        this.graph_nodes = metrics.graph_nodes;
+        this.graph_links = metrics.graph_links;
+        this.ngram_nodes = metrics.ngram_nodes;
+        this.keyword_iterations = metrics.keyword_iterations;
+        this.ngram_iterations = metrics.ngram_iterations;
+        this.wordnet_lookups = metrics.wordnet_lookups;
+        this.wordnet_hits = metrics.wordnet_hits;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.Arrays;
+
+
+/**
+ * Co-occurrence counts between pairs of node ids, kept in an
+ * open-addressing table of primitive long keys (the two ids packed
+ * together, lower id first) instead of per-node hash sets. Memory
+ * grows with the number of distinct pairs, i.e., at most tokens times
+ * the window size.
+ */
+
+public class EdgeWeights {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Protected members.
+     */
+
+    protected long[] keys;
+    protected int[] counts;
+    protected int size = 0;
+
+
+    /**
+     * Constructor.
+     */
+
+    public EdgeWeights() {
+        keys = new long[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, -1L);
+    }
+
+
+    /**
+     * Number of distinct pairs.
+     */
+
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Count one more co-occurrence of two node ids, in either order.
+     */
+
+    public void add(final int a, final int b) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+
+        final long key = pack(a, b);
+        final int slot = find(keys, key);
+
+        if (keys[slot] < 0L) {
+            keys[slot] = key;
+            size++;
+        }
+
+        counts[slot]++;
+    }
+
+
+    /**
+     * Lookup the co-occurrence count of two node ids.
+     */
+
+    public int get(final int a, final int b) {
+        final int slot = find(keys, pack(a, b));
+
+        return (keys[slot] < 0L) ? 0 : counts[slot];
+    }
+
+
+    /**
+     * Number of slots, for iterating over the pairs with
+     * isUsed()/getLow()/getHigh()/getCount().
+     */
+
+    public int capacity() {
+        return keys.length;
+    }
+
+
+    /**
+     * Determine whether a slot holds a pair.
+     */
+
+    public boolean isUsed(final int slot) {
+        return keys[slot] >= 0L;
+    }
+
+
+    /**
+     * Lower node id of the pair in a slot.
+     */
+
+    public int getLow(final int slot) {
+        return (int) (keys[slot] >>> 32);
+    }
+
+
+    /**
+     * Higher node id of the pair in a slot.
+     */
+
+    public int getHigh(final int slot) {
+        return (int) keys[slot];
+    }
+
+
+    /**
+     * Co-occurrence count of the pair in a slot.
+     */
+
+    public int getCount(final int slot) {
+        return counts[slot];
+    }
+
+
+    /**
+     * Pack two non-negative ids into one key, lower id first.
+     */
+
+    private static long pack(final int a, final int b) {
+        final int low = Math.min(a, b);
+        final int high = Math.max(a, b);
+
+        return ((long) low << 32) | (long) high;
+    }
+
+
+    /**
+     * Find the slot holding a key, or the free slot where it belongs.
+     */
+
+    private static int find(final long[] keys, final long key) {
+        final int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+
+        while ((keys[slot] >= 0L) && (keys[slot] != key)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+
+    /**
+     * Grow the table, re-inserting every pair.
+     */
+
+    private void rehash(final int capacity) {
+        final long[] old_keys = keys;
+        final int[] old_counts = counts;
+
+        keys = new long[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, -1L);
+
+        for (int slot = 0; slot < old_keys.length; slot++) {
+            if (old_keys[slot] >= 0L) {
+                final int s = find(keys, old_keys[slot]);
+
+                keys[s] = old_keys[slot];
+                counts[s] = old_counts[slot];
+            }
+        }
+    }
+
+
+    /**
+     * Spread the bits of a key.
+     */
+
+    private static long mix(final long key) {
+        final long x = key * 0x9E3779B97F4A7C15L;
+
+        return x ^ (x >>> 32);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+
+/**
+ * Gauss-Seidel iteration, with optional successive over-relaxation
+ * (SOR). Each node picks up the ranks its neighbors already got in
+ * the current sweep, which usually converges in far fewer sweeps than
+ * Jacobi. Updates happen in place, so sweeps run on the calling
+ * thread only.
+ */
+
+public class GaussSeidelSolver extends RankSolver {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static double DEFAULT_TOLERANCE = 1.0E-4D;
+
+    /**
+     * Protected members.
+     */
+
+    protected final double omega;
+
+
+    /**
+     * Constructor, plain Gauss-Seidel.
+     */
+
+    public GaussSeidelSolver() {
+        this(DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE, 1.0D);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param omega relaxation factor in (0, 2): 1.0 is plain
+     * Gauss-Seidel, above 1.0 over-relaxes
+     */
+
+    public GaussSeidelSolver(final int max_iterations, final double tolerance, final double omega) {
+        super(max_iterations, tolerance);
+
+        if ((omega <= 0.0D) || (omega >= 2.0D)) {
+            throw new IllegalArgumentException("omega must be in (0, 2): " + omega);
+        }
+
+        this.omega = omega;
+    }
+
+
+    /**
+     * Set up the shares for in-place sweeps.
+     */
+
+    protected void prepare(final CompactGraph cg) {
+        cg.prepareShares();
+    }
+
+
+    /**
+     * Run one in-place sweep.
+     */
+
+    protected double sweep(final CompactGraph cg) {
+        return cg.relax(omega) / (double) cg.size;
+    }
+}
@@ -34,6 +34,7 @@ package com.sharethis.textrank;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.TreeMap;
 
 import org.apache.commons.logging.Log;
@@ -76,118 +77,380 @@ public class Graph extends TreeMap<String, Node>
      */
 
     protected Node[] node_list = null;
+    protected int[] last_degrees = null;
+    protected long[] last_prints = null;
+    protected NodeDictionary dictionary = new NodeDictionary();
+    protected RankSolver solver = new JacobiSolver();
+    protected RankReport last_report = null;
+    protected Node[] top_nodes = new Node[0];
+    protected boolean top_sorted = true;
+    protected EdgeWeights weights = null;
+    protected int window = 0;
 
 
     /**
-     * Run through N iterations of the TreeRank algorithm, or until
-     * the standard error converges below a given threshold.
+     * Add a node, interning its key as a dense int id on first sight.
+     * A node takes the id from the first graph it gets put into.
+     * The node still goes into the tree as well, once, so values()
+     * keeps its key order; only the lookups skip the tree.
+     */
+
+    public Node
+	put (final String key, final Node value)
+    {
+	final int id = dictionary.put(key, value);
+
+	if (value.dict_id < 0) {
+	    value.dict_id = id;
+	}
+
+	return super.put(key, value);
+    }
+
+
+    /**
+     * Lookup a node by key through the hash dictionary, rather than
+     * walking the tree.
+     */
+
+    public Node
+	get (final Object key)
+    {
+	return (key instanceof String) ? dictionary.getNode((String) key) : null;
+    }
+
+
+    /**
+     * Determine whether a node exists for the given key.
+     */
+
+    public boolean
+	containsKey (final Object key)
+    {
+	return get(key) != null;
+    }
+
+
+    /**
+     * Remove the node for the given key.
+     */
+
+    public Node
+	remove (final Object key)
+    {
+	if (key instanceof String) {
+	    dictionary.remove((String) key);
+	}
+
+	return super.remove(key);
+    }
+
+
+    /**
+     * Remove all nodes.
      */
 
     public void
+	clear ()
+    {
+	dictionary.clear();
+
+	if (weights != null) {
+	    weights = new EdgeWeights();
+	}
+
+	super.clear();
+    }
+
+
+    /**
+     * Lookup the id interned for a key.
+     *
+     * @return the id, or -1 if the key has never been put
+     */
+
+    public int
+	getId (final String key)
+    {
+	return dictionary.getId(key);
+    }
+
+
+    /**
+     * Lookup a node by id.
+     */
+
+    public Node
+	getNode (final int id)
+    {
+	return dictionary.getNode(id);
+    }
+
+
+    /**
+     * Choose the solver used to iterate ranks.
+     */
+
+    public void
+	setSolver (final RankSolver solver)
+    {
+	this.solver = solver;
+    }
+
+
+    /**
+     * Build keyword adjacency from a sliding co-occurrence window,
+     * with weighted edges counted per pair of node ids, rather than
+     * linking each keyword only to the one before it. A window of 2
+     * or more enables this; anything less keeps the unweighted links.
+     */
+
+    public void
+	setCooccurrenceWindow (final int window)
+    {
+	this.window = window;
+	weights = (window >= 2) ? new EdgeWeights() : null;
+    }
+
+
+    /**
+     * @return true if keyword adjacency gets counted as weighted
+     * co-occurrence edges
+     */
+
+    public boolean
+	isWeighted ()
+    {
+	return weights != null;
+    }
+
+
+    /**
+     * Count the co-occurrences for a sequence of node ids, pairing
+     * each id with the ones up to <code>window - 1</code> positions
+     * before it. Memory stays bounded by the number of distinct
+     * pairs, i.e., O(tokens * window) at worst. A repeated id does
+     * not pair with itself, as a node never links to itself.
+     */
+
+    public void
+	addCooccurrences (final int[] ids, final int count)
+    {
+	for (int i = 0; i < count; i++) {
+	    for (int j = Math.max(0, i - window + 1); j < i; j++) {
+		if (ids[j] != ids[i]) {
+		    weights.add(ids[j], ids[i]);
+		}
+	    }
+	}
+    }
+
+
+    /**
+     * @return the weighted co-occurrence edges, or null when the
+     * graph is unweighted
+     */
+
+    public EdgeWeights
+	getEdgeWeights ()
+    {
+	return weights;
+    }
+
+
+    /**
+     * Count the links between nodes, as adjacency entries: each edge
+     * counts once from either end, including weighted co-occurrence
+     * edges.
+     */
+
+    public long
+	getLinkCount ()
+    {
+	long links = 0L;
+
+	for (Node n : values()) {
+	    links += n.edges.size();
+	}
+
+	if (weights != null) {
+	    links += 2L * weights.size();
+	}
+
+	return links;
+    }
+
+
+    /**
+     * Run the rank solver over the graph, up to its iteration cap or
+     * until the residual converges below its tolerance.
+     */
+
+    public RankReport
 	runTextRank ()
     {
-	final int max_iterations = this.size();
+	return runTextRank(0, 0);
+    }
+
+
+    /**
+     * Run the rank solver over the graph, and also stop once the
+     * <code>top_k</code> nodes have kept the same membership and order
+     * for <code>stable_sweeps</code> consecutive sweeps, even if the
+     * residual has not converged yet. A <code>top_k</code> of zero
+     * disables this.
+     */
+
+    public RankReport
+	runTextRank (final int top_k, final int stable_sweeps)
+    {
+	final Node[] previous_list = node_list;
+	final int[] previous_degrees = last_degrees;
+	final long[] previous_prints = last_prints;
+
 	node_list = new Node[this.size()];
+	last_degrees = new int[node_list.length];
+	last_prints = new long[node_list.length];
 
-	// load the node list
+	// load the node list, noting the neighbors of each node
 
 	int j = 0;
 
 	for (Node n1 : this.values()) {
+	    last_degrees[j] = n1.edges.size();
+	    last_prints[j] = edgePrint(n1);
 	    node_list[j++] = n1;
 	}
 
+	// note which nodes are new since the previous run, or have
+	// gained or lost neighbors, e.g., keywords linked to synsets
+
+	boolean[] fresh = null;
+
+	if (solver.isWarmStart() && (previous_list != null)) {
+	    final IdentityHashMap<Node, Integer> previous =
+		new IdentityHashMap<Node, Integer>(previous_list.length * 2);
+
+	    for (int k = 0; k < previous_list.length; k++) {
+		previous.put(previous_list[k], k);
+	    }
+
+	    fresh = new boolean[node_list.length];
+
+	    for (int i = 0; i < node_list.length; i++) {
+		final Integer k = previous.get(node_list[i]);
+
+		fresh[i] = (k == null)
+		    || (previous_degrees[k] != last_degrees[i])
+		    || (previous_prints[k] != last_prints[i]);
+	    }
+	}
+
 	// iterate, then sort and mark the top results
 
-	iterateGraph(max_iterations);
+	final TopKTracker tracker =
+	    (top_k > 0) ? new TopKTracker(top_k, stable_sweeps) : null;
+
+	last_report = iterateGraph(tracker, fresh);
+
+	return last_report;
     }
 
 
     /**
-     * Iterate through the graph, calculating rank.
+     * Fingerprint the neighbors of a node, independent of their
+     * order. A collision only means the warm start does not seed the
+     * node, and the global sweeps after it still cover it.
      */
 
-    protected void
-	iterateGraph (final int max_iterations)
+    protected static long
+	edgePrint (final Node node)
     {
-	final double[] rank_list = new double[node_list.length];
+	long print = 0L;
 
-	// either run through N iterations, or until the standard
-	// error converges below a threshold
-
-	for (int k = 0; k < max_iterations; k++) {
-	    dist_stats.clear();
+	for (Node n2 : node.edges) {
+	    long h = System.identityHashCode(n2) * 0x9e3779b97f4a7c15L;
+	    h ^= h >>> 29;
+	    print += h * 0xbf58476d1ce4e5b9L;
+	}
 
-	    // calculate the next rank for each node
+	return print;
+    }
 
-	    for (int i = 0; i < node_list.length; i++) {
-		final Node n1 = node_list[i];
-		double rank = 0.0D;
 
-		for (Node n2 : n1.edges) {
-		    rank += n2.rank / (double) n2.edges.size();
-		}
+    /**
+     * Iterate through the graph, calculating rank. The graph gets
+     * frozen into arrays first, so each iteration walks primitive
+     * arrays instead of chasing through the edge hash sets.
+     */
 
-		rank *= TEXTRANK_DAMPING_FACTOR;
-		rank += 1.0D - TEXTRANK_DAMPING_FACTOR;
+    protected RankReport
+	iterateGraph (final TopKTracker tracker, final boolean[] fresh)
+    {
+	final CompactGraph cg = CompactGraph.freeze(node_list, weights, this);
+	cg.fresh = fresh;
 
-		rank_list[i] = rank;
-		dist_stats.addValue(Math.abs(n1.rank - rank));
-	    }
+	final RankReport report = solver.solve(cg, tracker);
 
-	    final double standard_error =
-		dist_stats.getStandardDeviation() / Math.sqrt((double) dist_stats.getN());
+	cg.writeBack();
 
-	    if (LOG.isInfoEnabled()) {
-		LOG.info("iteration: " + k + " error: " + standard_error);
-	    }
+	return report;
+    }
 
-	    // swap in new rank values
 
-	    for (int i = 0; i < node_list.length; i++) {
-		node_list[i].rank = rank_list[i];
-	    }
+    /**
+     * Accessor for the report from the last call to runTextRank().
+     */
 
-	    if (standard_error < STANDARD_ERROR_THRESHOLD) {
-		break;
-	    }
-	}
+    public RankReport
+	getLastReport ()
+    {
+	return last_report;
     }
 
 
     /**
-     * Sort results to identify potential keywords.
+     * Select the top results to identify potential keywords, marking
+     * the <code>max_results + 1</code> highest-ranked nodes. Uses a
+     * selection over the rank array rather than sorting the node
+     * list, and gathers the stats for getRankThreshold() over the
+     * marked nodes.
      */
 
     public void
 	sortResults (final long max_results)
     {
-	Arrays.sort(node_list,
-		    new Comparator<Node>() {
-			public int compare (Node n1, Node n2) {
-			    if (n1.rank > n2.rank) {
-				return -1;
-			    }
-			    else if (n1.rank < n2.rank) {
-				return 1;
-			    }
-			    else {
-				return 0;
-			    }
-			}
-		    }
-		    );
+	final int size = node_list.length;
+	final double[] rank_list = new double[size];
+
+	for (int i = 0; i < size; i++) {
+	    rank_list[i] = node_list[i].rank;
+	}
+
+	// ties go to the earlier node, same as a stable sort would
+
+	final int top_count = (int) Math.max(0L, Math.min((long) size, max_results + 1L));
+	final int[] index = RankSelection.select(rank_list, size, top_count);
+	final boolean[] top = new boolean[size];
+
+	for (int t = 0; t < top_count; t++) {
+	    top[index[t]] = true;
+	}
 
 	// mark the top-ranked nodes
 
 	dist_stats.clear();
+	top_nodes = new Node[top_count];
+
+	int t = 0;
 
-	for (int i = 0; i < node_list.length; i++) {
+	for (int i = 0; i < size; i++) {
 	    final Node n1 = node_list[i];
 
-	    if (i <= max_results) {
+	    if (top[i]) {
 		n1.marked = true;
 		dist_stats.addValue(n1.rank);
+		top_nodes[t++] = n1;
 	    }
 
 	    if (LOG.isDebugEnabled()) {
@@ -198,6 +461,41 @@ public class Graph extends TreeMap<String, Node>
 		}
 	    }
 	}
+
+	top_sorted = false;
+    }
+
+
+    /**
+     * Accessor for the nodes marked by the last call to
+     * sortResults(), in rank order. Only these get sorted, and only
+     * on the first call.
+     */
+
+    public Node[]
+	getTopNodes ()
+    {
+	if (!top_sorted) {
+	    Arrays.sort(top_nodes,
+			new Comparator<Node>() {
+			    public int compare (Node n1, Node n2) {
+				if (n1.rank > n2.rank) {
+				    return -1;
+				}
+				else if (n1.rank < n2.rank) {
+				    return 1;
+				}
+				else {
+				    return 0;
+				}
+			    }
+			}
+			);
+
+	    top_sorted = true;
+	}
+
+	return top_nodes;
     }
 
 
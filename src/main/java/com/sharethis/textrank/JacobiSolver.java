@@ -0,0 +1,117 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Jacobi iteration, i.e., the original TextRank loop: every node gets
+ * its next rank from the previous sweep, and iteration stops once the
+ * standard error of the rank changes drops below the tolerance.
+ *
+ * Since a Jacobi sweep only reads the previous ranks, graphs with at
+ * least <code>parallel_threshold</code> nodes get each sweep split
+ * across a fork/join pool.
+ */
+
+public class JacobiSolver extends RankSolver {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int PARALLEL_NODE_THRESHOLD = 20000;
+
+    /**
+     * Protected members.
+     */
+
+    protected final ForkJoinPool pool;
+    protected final int parallel_threshold;
+
+
+    /**
+     * Constructor, with the same settings TextRank has always used.
+     */
+
+    public JacobiSolver() {
+        this(DEFAULT_MAX_ITERATIONS, Graph.STANDARD_ERROR_THRESHOLD);
+    }
+
+
+    /**
+     * Constructor, running large graphs on the common pool.
+     */
+
+    public JacobiSolver(final int max_iterations, final double tolerance) {
+        this(max_iterations, tolerance, ForkJoinPool.commonPool(), PARALLEL_NODE_THRESHOLD);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param pool fork/join pool for large graphs, or null to always
+     * iterate on the calling thread
+     * @param parallel_threshold minimum node count to use the pool
+     */
+
+    public JacobiSolver(final int max_iterations, final double tolerance, final ForkJoinPool pool, final int parallel_threshold) {
+        super(max_iterations, tolerance);
+        this.pool = pool;
+        this.parallel_threshold = parallel_threshold;
+    }
+
+
+    /**
+     * Run one Jacobi sweep, on the pool when the graph is large
+     * enough.
+     */
+
+    protected double sweep(final CompactGraph cg) {
+        final ForkJoinPool fj = (cg.size >= parallel_threshold) ? pool : null;
+
+        return residual(cg, cg.iterate(fj));
+    }
+
+
+    /**
+     * Measure convergence after a sweep, here the standard error of
+     * the rank changes.
+     */
+
+    protected double residual(final CompactGraph cg, final double standard_error) {
+        return standard_error;
+    }
+}
@@ -0,0 +1,739 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Persistent store of key phrase results keyed by content hash (see
+ * TextRank.contentHash()), which survives restarts.
+ *
+ * Results go into an append-only log, <code>data.log</code>, where
+ * each record carries its length and a CRC32 of its payload. A
+ * memory-mapped open-addressing index, <code>index.dat</code>, maps
+ * each hash onto the offset of its latest record. The index header
+ * records the length of the log it covers: when that does not match
+ * after a crash, the index gets rebuilt by scanning the log, and a
+ * torn record at the tail gets truncated.
+ *
+ * Overwritten records are garbage until compaction, which copies the
+ * live records to a new log. Compaction runs once garbage makes up
+ * half the log, or once an append would pass the size cap, in which
+ * case the oldest live records get dropped too, down to three
+ * quarters of the cap.
+ */
+
+public class KeyphraseStore {
+
+    // logging
+
+    private final static Log LOG =
+        LogFactory.getLog(KeyphraseStore.class.getName());
+
+
+    /**
+     * Public definitions.
+     */
+
+    public final static String LOG_FILE = "data.log";
+    public final static String INDEX_FILE = "index.dat";
+
+    public final static int INDEX_MAGIC = 0x54524b49;
+    public final static int INDEX_VERSION = 1;
+    public final static int HEADER_BYTES = 32;
+    public final static int SLOT_BYTES = 24;
+    public final static int INITIAL_CAPACITY = 1024;
+    public final static int RECORD_HEADER_BYTES = 8;
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final File dir;
+    protected final long max_bytes;
+
+    protected RandomAccessFile log_file = null;
+    protected FileChannel log = null;
+    protected long log_length = 0L;
+
+    protected MappedByteBuffer index = null;
+    protected int capacity = 0;
+    protected int count = 0;
+    protected long live_bytes = 0L;
+
+
+    /**
+     * Open (or create) a store in the given directory.
+     *
+     * @param max_bytes cap on the size of the log
+     */
+
+    public KeyphraseStore(final File dir, final long max_bytes) throws IOException {
+        this.dir = dir;
+        this.max_bytes = max_bytes;
+
+        Files.createDirectories(dir.toPath());
+        open();
+    }
+
+
+    /**
+     * @return the key phrases stored for the given content hash, or
+     * null if there are none
+     */
+
+    public synchronized List<Keyphrase> get(final String hash) throws IOException {
+        ensureOpen();
+
+        final long key_hi = keyHigh(hash);
+        final long key_lo = keyLow(hash);
+        final int slot = findSlot(index, capacity, key_hi, key_lo);
+        final long offset = index.getLong(slotOffset(slot) + 16) - 1L;
+
+        if (offset < 0L) {
+            return null;
+        }
+
+        final ByteBuffer payload = readRecord(offset);
+
+        if (payload == null) {
+            LOG.warn("corrupt record at " + offset + " for " + hash);
+            return null;
+        }
+
+        if ((payload.getLong(0) != key_hi) || (payload.getLong(8) != key_lo)) {
+            LOG.warn("record at " + offset + " does not match " + hash);
+            return null;
+        }
+
+        return decode(payload);
+    }
+
+
+    /**
+     * Store the key phrases for the given content hash, replacing any
+     * stored before.
+     */
+
+    public synchronized void put(final String hash, final List<Keyphrase> keyphrases) throws IOException {
+        ensureOpen();
+
+        final ByteBuffer payload = encode(keyHigh(hash), keyLow(hash), keyphrases);
+        final long record_bytes = RECORD_HEADER_BYTES + payload.remaining();
+
+        if (record_bytes > max_bytes) {
+            return;
+        }
+
+        if (log_length + record_bytes > max_bytes) {
+            compact(max_bytes - max_bytes / 4 - record_bytes);
+        }
+        else if ((log_length > 0L) && (2L * live_bytes < log_length)) {
+            compact(Long.MAX_VALUE);
+        }
+
+        final long offset = append(payload);
+        insert(keyHigh(hash), keyLow(hash), offset, record_bytes);
+        writeHeader();
+    }
+
+
+    /**
+     * @return the number of stored results
+     */
+
+    public synchronized int size() {
+        return count;
+    }
+
+
+    /**
+     * @return the size of the log, including garbage
+     */
+
+    public synchronized long getLogBytes() {
+        return log_length;
+    }
+
+
+    /**
+     * @return the size of the live records in the log
+     */
+
+    public synchronized long getLiveBytes() {
+        return live_bytes;
+    }
+
+
+    /**
+     * Copy the live records to a new log, dropping the garbage, and
+     * also the oldest live records while the rest would exceed the
+     * given target size.
+     */
+
+    public synchronized void compact(final long target_bytes) throws IOException {
+        ensureOpen();
+
+        // collect the live records, in log order
+
+        final List<long[]> live = new ArrayList<>(count);
+
+        for (int slot = 0; slot < capacity; slot++) {
+            final long offset = index.getLong(slotOffset(slot) + 16) - 1L;
+
+            if (offset >= 0L) {
+                live.add(new long[] { offset, RECORD_HEADER_BYTES + readLength(offset) });
+            }
+        }
+
+        Collections.sort(live, (a, b) -> Long.compare(a[0], b[0]));
+
+        long total = 0L;
+
+        for (long[] record : live) {
+            total += record[1];
+        }
+
+        int first = 0;
+
+        while ((first < live.size()) && (total > target_bytes)) {
+            total -= live.get(first)[1];
+            first++;
+        }
+
+        // write them to a new log and index, then swap those in
+
+        final File new_log = new File(dir, LOG_FILE + ".compact");
+        final File new_index = new File(dir, INDEX_FILE + ".compact");
+
+        Files.deleteIfExists(new_log.toPath());
+        Files.deleteIfExists(new_index.toPath());
+
+        final int new_capacity = capacityFor(live.size() - first);
+        long new_length = 0L;
+
+        try (RandomAccessFile out = new RandomAccessFile(new_log, "rw");
+             RandomAccessFile idx = new RandomAccessFile(new_index, "rw")) {
+            final FileChannel out_channel = out.getChannel();
+            final MappedByteBuffer new_map = idx.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_BYTES + (long) new_capacity * SLOT_BYTES);
+
+            for (int i = first; i < live.size(); i++) {
+                final long offset = live.get(i)[0];
+                final ByteBuffer record = ByteBuffer.allocate((int) live.get(i)[1]);
+                readFully(log, record, offset);
+                record.flip();
+
+                final long key_hi = record.getLong(RECORD_HEADER_BYTES);
+                final long key_lo = record.getLong(RECORD_HEADER_BYTES + 8);
+
+                writeFully(out_channel, record, new_length);
+
+                final int slot = findSlot(new_map, new_capacity, key_hi, key_lo);
+                new_map.putLong(slotOffset(slot), key_hi);
+                new_map.putLong(slotOffset(slot) + 8, key_lo);
+                new_map.putLong(slotOffset(slot) + 16, new_length + 1L);
+
+                new_length += live.get(i)[1];
+            }
+
+            writeHeader(new_map, new_capacity, live.size() - first, new_length, new_length);
+            out_channel.force(true);
+            new_map.force();
+        }
+
+        // the old index goes first, so that whichever step fails, the
+        // log in place never gets paired with an index of another log
+
+        close();
+
+        try {
+            Files.deleteIfExists(new File(dir, INDEX_FILE).toPath());
+            Files.move(new_log.toPath(), new File(dir, LOG_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(new_index.toPath(), new File(dir, INDEX_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            open();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("compacted to " + count + " records, " + log_length + " bytes");
+        }
+    }
+
+
+    /**
+     * Flush the log and the index to disk.
+     */
+
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        log.force(true);
+        index.force();
+    }
+
+
+    /**
+     * Flush and close the files; the store can not be used after.
+     */
+
+    public synchronized void close() throws IOException {
+        if (log != null) {
+            flush();
+            log_file.close();
+            log = null;
+            log_file = null;
+            index = null;
+        }
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // files
+    //////////////////////////////////////////////////////////////////////
+
+    /**
+     * Open the log and map the index, rebuilding the index when it
+     * does not cover exactly the whole log, or when a compaction did
+     * not finish swapping in its files.
+     */
+
+    protected void open() throws IOException {
+        log_file = new RandomAccessFile(new File(dir, LOG_FILE), "rw");
+        log = log_file.getChannel();
+
+        final File index_file = new File(dir, INDEX_FILE);
+        final boolean interrupted =
+            Files.deleteIfExists(new File(dir, LOG_FILE + ".compact").toPath())
+            | Files.deleteIfExists(new File(dir, INDEX_FILE + ".compact").toPath());
+        boolean valid = false;
+
+        if (!interrupted && (index_file.length() >= HEADER_BYTES)) {
+            mapIndex(index_file, -1);
+
+            valid = (index.getInt(0) == INDEX_MAGIC) && (index.getInt(4) == INDEX_VERSION);
+
+            if (valid) {
+                capacity = index.getInt(8);
+                count = index.getInt(12);
+                log_length = index.getLong(16);
+                live_bytes = index.getLong(24);
+                valid = (Integer.bitCount(capacity) == 1)
+                    && (index_file.length() >= HEADER_BYTES + (long) capacity * SLOT_BYTES)
+                    && (log_length == log.size());
+            }
+        }
+
+        if (!valid) {
+            if (log.size() > 0L) {
+                LOG.warn("rebuilding " + index_file + " from " + new File(dir, LOG_FILE));
+            }
+
+            mapIndex(index_file, INITIAL_CAPACITY);
+            count = 0;
+            log_length = 0L;
+            live_bytes = 0L;
+        }
+
+        recover();
+        writeHeader();
+    }
+
+
+    /**
+     * Fail with an IOException rather than a NullPointerException once
+     * the files are closed, e.g., after a failed compaction.
+     */
+
+    protected void ensureOpen() throws IOException {
+        if (log == null) {
+            throw new IOException("keyphrase store is closed: " + dir);
+        }
+    }
+
+
+    /**
+     * Map the index file, creating it with the given capacity if
+     * positive, or else at its current size.
+     */
+
+    protected void mapIndex(final File index_file, final int new_capacity) throws IOException {
+        try (RandomAccessFile idx = new RandomAccessFile(index_file, "rw")) {
+            if (new_capacity > 0) {
+                idx.setLength(0L);
+                idx.setLength(HEADER_BYTES + (long) new_capacity * SLOT_BYTES);
+                capacity = new_capacity;
+            }
+
+            index = idx.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, idx.length());
+        }
+    }
+
+
+    /**
+     * Scan the records past the end covered by the index (if any),
+     * adding them to it, and truncate the log at the first torn
+     * record.
+     */
+
+    protected void recover() throws IOException {
+        final long size = log.size();
+        long offset = log_length;
+
+        while (offset + RECORD_HEADER_BYTES <= size) {
+            final ByteBuffer payload = readRecord(offset);
+
+            if (payload == null) {
+                break;
+            }
+
+            final long record_bytes = RECORD_HEADER_BYTES + payload.remaining();
+            insert(payload.getLong(0), payload.getLong(8), offset, record_bytes);
+            offset += record_bytes;
+        }
+
+        if (offset < size) {
+            LOG.warn("truncating " + (size - offset) + " bytes of torn records from " + new File(dir, LOG_FILE));
+            log.truncate(offset);
+        }
+
+        log_length = offset;
+    }
+
+
+    /**
+     * Append a record to the log.
+     *
+     * @return its offset
+     */
+
+    protected long append(final ByteBuffer payload) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.remaining());
+        record.putInt(payload.remaining());
+        record.putInt((int) crc.getValue());
+        record.put(payload);
+        record.flip();
+
+        final long offset = log_length;
+        writeFully(log, record, offset);
+        log_length += record.capacity();
+
+        return offset;
+    }
+
+
+    /**
+     * @return the payload of the record at the given offset, or null
+     * if it is torn or corrupt
+     */
+
+    protected ByteBuffer readRecord(final long offset) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+
+        if (!readFully(log, header, offset)) {
+            return null;
+        }
+
+        final int length = header.getInt(0);
+        final int expected = header.getInt(4);
+
+        if ((length < 20) || (offset + RECORD_HEADER_BYTES + length > log.size())) {
+            return null;
+        }
+
+        final ByteBuffer payload = ByteBuffer.allocate(length);
+
+        if (!readFully(log, payload, offset + RECORD_HEADER_BYTES)) {
+            return null;
+        }
+
+        payload.flip();
+
+        final CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        return ((int) crc.getValue() == expected) ? payload : null;
+    }
+
+
+    /**
+     * @return the payload length of the record at the given offset
+     */
+
+    protected int readLength(final long offset) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(log, header, offset);
+
+        return header.getInt(0);
+    }
+
+
+    protected static boolean readFully(final FileChannel channel, final ByteBuffer buffer, final long offset) throws IOException {
+        long position = offset;
+
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position);
+
+            if (n < 0) {
+                return false;
+            }
+
+            position += n;
+        }
+
+        return true;
+    }
+
+
+    protected static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long offset) throws IOException {
+        long position = offset;
+
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // index
+    //////////////////////////////////////////////////////////////////////
+
+    /**
+     * Point the index entry for a key at a new record, growing the
+     * index as it fills up.
+     */
+
+    protected void insert(final long key_hi, final long key_lo, final long offset, final long record_bytes) throws IOException {
+        if (2 * (count + 1) > capacity) {
+            grow();
+        }
+
+        final int slot = findSlot(index, capacity, key_hi, key_lo);
+        final int base = slotOffset(slot);
+        final long previous = index.getLong(base + 16) - 1L;
+
+        if (previous >= 0L) {
+            live_bytes -= RECORD_HEADER_BYTES + readLength(previous);
+        }
+        else {
+            count++;
+        }
+
+        index.putLong(base, key_hi);
+        index.putLong(base + 8, key_lo);
+        index.putLong(base + 16, offset + 1L);
+        live_bytes += record_bytes;
+    }
+
+
+    /**
+     * Double the capacity of the index, rehashing into a new file.
+     */
+
+    protected void grow() throws IOException {
+        final int new_capacity = capacity * 2;
+        final File new_index = new File(dir, INDEX_FILE + ".grow");
+
+        Files.deleteIfExists(new_index.toPath());
+
+        try (RandomAccessFile idx = new RandomAccessFile(new_index, "rw")) {
+            final MappedByteBuffer new_map = idx.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_BYTES + (long) new_capacity * SLOT_BYTES);
+
+            for (int slot = 0; slot < capacity; slot++) {
+                final int base = slotOffset(slot);
+                final long offset_plus_one = index.getLong(base + 16);
+
+                if (offset_plus_one != 0L) {
+                    final long key_hi = index.getLong(base);
+                    final long key_lo = index.getLong(base + 8);
+                    final int new_slot = findSlot(new_map, new_capacity, key_hi, key_lo);
+
+                    new_map.putLong(slotOffset(new_slot), key_hi);
+                    new_map.putLong(slotOffset(new_slot) + 8, key_lo);
+                    new_map.putLong(slotOffset(new_slot) + 16, offset_plus_one);
+                }
+            }
+
+            writeHeader(new_map, new_capacity, count, log_length, live_bytes);
+            new_map.force();
+        }
+
+        Files.move(new_index.toPath(), new File(dir, INDEX_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mapIndex(new File(dir, INDEX_FILE), -1);
+        capacity = new_capacity;
+    }
+
+
+    /**
+     * @return the slot holding the given key, or the empty slot where
+     * it would go
+     */
+
+    protected static int findSlot(final ByteBuffer map, final int capacity, final long key_hi, final long key_lo) {
+        final int mask = capacity - 1;
+        int slot = (int) (mix(key_hi ^ key_lo) & mask);
+
+        while (true) {
+            final int base = slotOffset(slot);
+
+            if ((map.getLong(base + 16) == 0L) || ((map.getLong(base) == key_hi) && (map.getLong(base + 8) == key_lo))) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+
+    protected static int slotOffset(final int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+
+    protected static int capacityFor(final int entries) {
+        int c = INITIAL_CAPACITY;
+
+        while (c < 2 * entries + 2) {
+            c <<= 1;
+        }
+
+        return c;
+    }
+
+
+    protected void writeHeader() {
+        writeHeader(index, capacity, count, log_length, live_bytes);
+    }
+
+
+    protected static void writeHeader(final ByteBuffer map, final int capacity, final int count, final long log_length, final long live_bytes) {
+        map.putInt(0, INDEX_MAGIC);
+        map.putInt(4, INDEX_VERSION);
+        map.putInt(8, capacity);
+        map.putInt(12, count);
+        map.putLong(16, log_length);
+        map.putLong(24, live_bytes);
+    }
+
+
+    protected static long mix(final long h) {
+        long x = h;
+
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+
+        return x;
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // records
+    //////////////////////////////////////////////////////////////////////
+
+    protected static long keyHigh(final String hash) {
+        return Long.parseUnsignedLong(hash.substring(0, 16), 16);
+    }
+
+
+    protected static long keyLow(final String hash) {
+        return Long.parseUnsignedLong(hash.substring(16, 32), 16);
+    }
+
+
+    /**
+     * Encode the payload of a record: the key, then each key phrase
+     * as its metric and UTF-8 text.
+     */
+
+    protected static ByteBuffer encode(final long key_hi, final long key_lo, final List<Keyphrase> keyphrases) {
+        final List<byte[]> phrases = new ArrayList<>(keyphrases.size());
+        int length = 20;
+
+        for (Keyphrase keyphrase : keyphrases) {
+            final byte[] phrase = keyphrase.getPhrase().getBytes(StandardCharsets.UTF_8);
+            phrases.add(phrase);
+            length += 12 + phrase.length;
+        }
+
+        final ByteBuffer payload = ByteBuffer.allocate(length);
+        payload.putLong(key_hi);
+        payload.putLong(key_lo);
+        payload.putInt(keyphrases.size());
+
+        for (int i = 0; i < keyphrases.size(); i++) {
+            payload.putDouble(keyphrases.get(i).getMetric());
+            payload.putInt(phrases.get(i).length);
+            payload.put(phrases.get(i));
+        }
+
+        payload.flip();
+        return payload;
+    }
+
+
+    protected static List<Keyphrase> decode(final ByteBuffer payload) {
+        payload.position(16);
+
+        final int n = payload.getInt();
+        final List<Keyphrase> keyphrases = new ArrayList<>(n);
+
+        for (int i = 0; i < n; i++) {
+            final double metric = payload.getDouble();
+            final byte[] phrase = new byte[payload.getInt()];
+            payload.get(phrase);
+            keyphrases.add(new Keyphrase(new String(phrase, StandardCharsets.UTF_8), metric));
+        }
+
+        return Collections.unmodifiableList(keyphrases);
+    }
+}
@@ -32,16 +32,56 @@ public class LanguageDutch extends LanguageModel {
     public static SentenceModel splitter_nl = null;
     public static TokenizerModel tokenizer_nl = null;
     public static POSModel tagger_nl = null;
+
+    /**
+     * @deprecated not thread safe, and no longer used here:
+     * stemToken() uses a stemmer per thread
+     */
+    @Deprecated
     public static DutchStemmer stemmer_nl = null;
 
+    // OpenNLP tools and Snowball stemmers are not thread safe, so
+    // each thread gets its own instances, built once per thread and
+    // shared across all the sentences it processes
+
+    protected final static ThreadLocal<SentenceDetectorME> detector_nl = new ThreadLocal<SentenceDetectorME>() {
+        @Override
+        protected SentenceDetectorME initialValue () {
+            return new SentenceDetectorME(splitter_nl);
+        }
+    };
+
+    protected final static ThreadLocal<TokenizerME> token_me_nl = new ThreadLocal<TokenizerME>() {
+        @Override
+        protected TokenizerME initialValue () {
+            return new TokenizerME(tokenizer_nl);
+        }
+    };
+
+    protected final static ThreadLocal<POSTaggerME> tagger_me_nl = new ThreadLocal<POSTaggerME>() {
+        @Override
+        protected POSTaggerME initialValue () {
+            return new POSTaggerME(tagger_nl);
+        }
+    };
+
+    protected final static ThreadLocal<DutchStemmer> stemmer_me_nl = new ThreadLocal<DutchStemmer>() {
+        @Override
+        protected DutchStemmer initialValue () {
+            return new DutchStemmer();
+        }
+    };
+
 
     /**
      * Constructor. Not quite a Singleton pattern but close enough
      * given the resources required to be loaded ONCE.
      */
     public LanguageDutch() throws Exception {
-        if (splitter_nl == null) {
-            loadResources();
+        synchronized (LanguageDutch.class) {
+            if (splitter_nl == null) {
+                loadResources();
+            }
         }
     }
 
@@ -65,7 +105,7 @@ public class LanguageDutch extends LanguageModel {
      * Split sentences within the paragraph text.
      */
     public String[] splitParagraph (final String text) {
-        return new SentenceDetectorME(splitter_nl).sentDetect(text);
+        return detector_nl.get().sentDetect(text);
     }
 
 
@@ -73,7 +113,7 @@ public class LanguageDutch extends LanguageModel {
      * Tokenize the sentence text into an array of tokens.
      */
     public String[] tokenizeSentence (final String text) {
-        final String[] token_list = new TokenizerME(tokenizer_nl).tokenize(text);
+        final String[] token_list = token_me_nl.get().tokenize(text);
 
         ArrayList<String> cleanedTokens = new ArrayList<>(token_list.length);
 
@@ -92,7 +132,7 @@ public class LanguageDutch extends LanguageModel {
      * Run a part-of-speech tagger on the sentence token list.
      */
     public String[] tagTokens (final String[] token_list) {
-        final Sequence[] sequences = new POSTaggerME(tagger_nl).topKSequences(token_list);
+        final Sequence[] sequences = tagger_me_nl.get().topKSequences(token_list);
         final String[] tag_list = new String[token_list.length];
 
         int i = 0;
@@ -108,9 +148,9 @@ public class LanguageDutch extends LanguageModel {
 
     /**
      * Prepare a stable key for a graph node (stemmed, lemmatized)
-     * from a token.
+     * from a token, without the cache.
      */
-    public String getNodeKey (final String text, final String pos) throws Exception {
+    protected String buildNodeKey (final String text, final String pos) throws Exception {
         return pos.substring(0, 1) + stemToken(scrubToken(text)).toLowerCase();
     }
 
@@ -135,9 +175,11 @@ public class LanguageDutch extends LanguageModel {
      * Perform stemming on the given token.
      */
     public String stemToken (final String token) {
-        stemmer_nl.setCurrent(token);
-        stemmer_nl.stem();
+        final DutchStemmer stemmer = stemmer_me_nl.get();
+
+        stemmer.setCurrent(token);
+        stemmer.stem();
 
-        return stemmer_nl.getCurrent();
+        return stemmer.getCurrent();
     }
 }
\ No newline at end of file
@@ -64,16 +64,56 @@ public class LanguageEnglish extends LanguageModel {
 	public static SentenceModel splitter_en = null;
 	public static TokenizerModel tokenizer_en = null;
 	public static POSModel tagger_en = null;
+
+	/**
+	 * @deprecated not thread safe, and no longer used here:
+	 * stemToken() uses a stemmer per thread
+	 */
+	@Deprecated
 	public static EnglishStemmer stemmer_en = null;
 
+	// OpenNLP tools and Snowball stemmers are not thread safe, so
+	// each thread gets its own instances, built once per thread and
+	// shared across all the sentences it processes
+
+	protected final static ThreadLocal<SentenceDetectorME> detector_en = new ThreadLocal<SentenceDetectorME>() {
+		@Override
+		protected SentenceDetectorME initialValue () {
+			return new SentenceDetectorME(splitter_en);
+		}
+	};
+
+	protected final static ThreadLocal<TokenizerME> token_me_en = new ThreadLocal<TokenizerME>() {
+		@Override
+		protected TokenizerME initialValue () {
+			return new TokenizerME(tokenizer_en);
+		}
+	};
+
+	protected final static ThreadLocal<POSTaggerME> tagger_me_en = new ThreadLocal<POSTaggerME>() {
+		@Override
+		protected POSTaggerME initialValue () {
+			return new POSTaggerME(tagger_en);
+		}
+	};
+
+	protected final static ThreadLocal<EnglishStemmer> stemmer_me_en = new ThreadLocal<EnglishStemmer>() {
+		@Override
+		protected EnglishStemmer initialValue () {
+			return new EnglishStemmer();
+		}
+	};
+
 
 	/**
 	 * Constructor. Not quite a Singleton pattern but close enough
 	 * given the resources required to be loaded ONCE.
 	 */
 	public LanguageEnglish() throws Exception {
-		if (splitter_en == null) {
-			loadResources();
+		synchronized (LanguageEnglish.class) {
+			if (splitter_en == null) {
+				loadResources();
+			}
 		}
 	}
 
@@ -93,14 +133,14 @@ public class LanguageEnglish extends LanguageModel {
 	 */
 	public String[] splitParagraph (final String text) {
 
-		return new SentenceDetectorME(splitter_en).sentDetect(text);
+		return detector_en.get().sentDetect(text);
 	}
 
 	/**
 	 * Tokenize the sentence text into an array of tokens.
 	 */
 	public String[] tokenizeSentence (final String text) {
-		final String[] token_list = new TokenizerME(tokenizer_en).tokenize(text);
+		final String[] token_list = token_me_en.get().tokenize(text);
 
 		ArrayList<String> cleanedTokens = new ArrayList<>(token_list.length);
 
@@ -118,7 +158,7 @@ public class LanguageEnglish extends LanguageModel {
 	 * Run a part-of-speech tagger on the sentence token list.
 	 */
 	public String[] tagTokens (final String[] token_list) {
-		final Sequence[] sequences = new POSTaggerME(tagger_en).topKSequences(token_list);
+		final Sequence[] sequences = tagger_me_en.get().topKSequences(token_list);
 		final String[] tag_list = new String[token_list.length];
 
 		int i = 0;
@@ -133,9 +173,9 @@ public class LanguageEnglish extends LanguageModel {
 
 	/**
 	 * Prepare a stable key for a graph node (stemmed, lemmatized)
-	 * from a token.
+	 * from a token, without the cache.
 	 */
-	public String getNodeKey (final String text, final String pos) throws Exception {
+	protected String buildNodeKey (final String text, final String pos) throws Exception {
 		return pos.substring(0, 2) + stemToken(scrubToken(text)).toLowerCase();
 	}
 
@@ -160,10 +200,12 @@ public class LanguageEnglish extends LanguageModel {
 	 * Perform stemming on the given token.
 	 */
 	public String stemToken (final String token) {
-		stemmer_en.setCurrent(token);
-		stemmer_en.stem();
+		final EnglishStemmer stemmer = stemmer_me_en.get();
+
+		stemmer.setCurrent(token);
+		stemmer.stem();
 
-		return stemmer_en.getCurrent();
+		return stemmer.getCurrent();
 	}
 
 	private InputStream getResourceAsStream(String name) throws FileNotFoundException {
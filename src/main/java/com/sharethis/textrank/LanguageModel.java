@@ -32,6 +32,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.sharethis.textrank;
 
+import com.sharethis.common.StripedLruCache;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -49,10 +51,22 @@ public abstract class LanguageModel {
      * Public definitions.
      */
     public final static int TOKEN_LENGTH_LIMIT = 50;
+    public final static long NODE_KEY_CACHE_ENTRIES = 65536L;
+    public final static int NODE_KEY_CACHE_STRIPES = 16;
+    public final static int SENTENCE_CACHE_STRIPES = 16;
 
     // logging
     private final static Log LOG = LogFactory.getLog(LanguageModel.class.getName());
 
+    /**
+     * Protected members.
+     */
+
+    protected volatile StripedLruCache<String, String[][]> sentence_cache = null;
+    protected volatile StripedLruCache<String, String> node_key_cache =
+        new StripedLruCache<>(NODE_KEY_CACHE_ENTRIES, NODE_KEY_CACHE_STRIPES);
+
+
     /**
      * Factory method, loads libraries for OpenNLP based on the given
      * language code.
@@ -70,6 +84,44 @@ public abstract class LanguageModel {
     }
 
 
+    /**
+     * Build a cache of the tokens and tags of each sentence, keyed by
+     * the hash of its text and bounded by an estimate of its size in
+     * bytes. Every worker looks up every sentence, so the cache is
+     * striped, to keep the workers off a single lock.
+     */
+
+    public static StripedLruCache<String, String[][]> buildSentenceCache(final long max_bytes) {
+        return StripedLruCache.byWeight(max_bytes, SENTENCE_CACHE_STRIPES, (key, tagged) -> {
+            // rough footprint: strings as UTF-16 plus object headers
+            long bytes = 96L + 2L * key.length();
+
+            for (int i = 0; i < tagged[0].length; i++) {
+                bytes += 96L + 2L * (tagged[0][i].length() + tagged[1][i].length());
+            }
+
+            return bytes;
+        });
+    }
+
+
+    /**
+     * Reuse the tokens and tags of sentences seen before, from the
+     * given cache; null turns this off. The cached arrays are shared,
+     * so they must not be modified, and since the key is just the
+     * text, a cache must not be shared between languages.
+     */
+
+    public void setSentenceCache(final StripedLruCache<String, String[][]> sentence_cache) {
+        this.sentence_cache = sentence_cache;
+    }
+
+
+    public StripedLruCache<String, String[][]> getSentenceCache() {
+        return sentence_cache;
+    }
+
+
     /**
      * Load libraries for OpenNLP for this specific language.
      */
@@ -100,10 +152,52 @@ public abstract class LanguageModel {
 
     /**
      * Prepare a stable key for a graph node (stemmed, lemmatized)
-     * from a token.
+     * from a token. Keys are memoized in the node key cache, shared
+     * by all the threads using this model, and interned, so that
+     * repeated tokens share one key instance.
      */
 
-    public abstract String getNodeKey(final String text, final String pos)throws Exception;
+    public String getNodeKey(final String text, final String pos) throws Exception {
+        final StripedLruCache<String, String> cache = node_key_cache;
+
+        if (cache == null) {
+            return buildNodeKey(text, pos);
+        }
+
+        final String cache_key = pos + '\t' + text;
+        String key = cache.get(cache_key);
+
+        if (key == null) {
+            key = buildNodeKey(text, pos).intern();
+            cache.put(cache_key, key);
+        }
+
+        return key;
+    }
+
+
+    /**
+     * Prepare a stable key for a graph node (stemmed, lemmatized)
+     * from a token, without the cache.
+     */
+
+    protected abstract String buildNodeKey(final String text, final String pos) throws Exception;
+
+
+    /**
+     * Memoize node keys in the given cache; null turns this off.
+     * Since the key depends on the language, a cache must not be
+     * shared between languages.
+     */
+
+    public void setNodeKeyCache(final StripedLruCache<String, String> node_key_cache) {
+        this.node_key_cache = node_key_cache;
+    }
+
+
+    public StripedLruCache<String, String> getNodeKeyCache() {
+        return node_key_cache;
+    }
 
 
     /**
@@ -0,0 +1,302 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import com.sharethis.common.BloomFilter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.Exc;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.Dictionary;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Bloom filter of the WordNet lemmas and exception forms for nouns
+ * and adjectives, which rejects lookups that can not find a lemma
+ * before they reach the morphological processor.
+ *
+ * To never reject a lookup which would succeed, the filter runs the
+ * same operations as the processor (see Morphology) with the filter
+ * standing in for the dictionary. Text where any operation may look
+ * up an exception form gets passed through, since its base forms are
+ * unknown here, and so does text with too many combinations to
+ * probe.
+ */
+
+public class LemmaFilter {
+
+    // logging
+
+    private final static Log LOG =
+        LogFactory.getLog(LemmaFilter.class.getName());
+
+
+    /**
+     * Public definitions.
+     */
+
+    public final static double DEFAULT_FPP = 0.01D;
+    public final static int MAX_PROBES = 4096;
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final static POS[] POS_LIST = { POS.NOUN, POS.ADJECTIVE };
+
+    protected final BloomFilter filter;
+    protected final Morphology morphology;
+
+
+    /**
+     * Constructor.
+     */
+
+    public LemmaFilter(final BloomFilter filter) {
+        this.filter = filter;
+        this.morphology = new Morphology(new Morphology.Lexicon() {
+            public boolean isLemma(final POS pos, final String lemma) {
+                return filter.mightContain(lemmaKey(pos, lemma));
+            }
+
+            public List<String> getExceptions(final POS pos, final String form) {
+                // checked up front, in mightHaveLemma()
+                return null;
+            }
+        }, MAX_PROBES);
+    }
+
+
+    /**
+     * Build the filter from every noun and adjective lemma and
+     * exception form in the dictionary.
+     *
+     * @param fpp rate of false positives, per probe
+     */
+
+    public static LemmaFilter build(final Dictionary dictionary, final double fpp) throws JWNLException {
+        final List<String> keys = getKeys(dictionary);
+
+        return build(keys, BloomFilter.create(keys.size(), fpp));
+    }
+
+
+    /**
+     * Build the filter from the dictionary, within a memory budget,
+     * at whatever rate of false positives that allows.
+     *
+     * @param max_bytes size of the bit array
+     */
+
+    public static LemmaFilter build(final Dictionary dictionary, final long max_bytes) throws JWNLException {
+        final List<String> keys = getKeys(dictionary);
+
+        return build(keys, BloomFilter.withBytes(keys.size(), max_bytes));
+    }
+
+
+    /**
+     * Build the filter from the lemmas and exception forms of a
+     * neighborhood index, which are keyed the same.
+     */
+
+    public static LemmaFilter build(final NeighborhoodIndex index, final double fpp) {
+        final List<String> keys = index.getKeys();
+
+        return build(keys, BloomFilter.create(keys.size(), fpp));
+    }
+
+
+    /**
+     * Build the filter from a neighborhood index, within a memory
+     * budget.
+     *
+     * @param max_bytes size of the bit array
+     */
+
+    public static LemmaFilter build(final NeighborhoodIndex index, final long max_bytes) {
+        final List<String> keys = index.getKeys();
+
+        return build(keys, BloomFilter.withBytes(keys.size(), max_bytes));
+    }
+
+
+    /**
+     * @return the keys of every noun and adjective lemma and
+     * exception form in the dictionary
+     */
+
+    protected static List<String> getKeys(final Dictionary dictionary) throws JWNLException {
+        final List<String> keys = new ArrayList<>();
+
+        for (POS pos : POS_LIST) {
+            final Iterator<IndexWord> words = dictionary.getIndexWordIterator(pos);
+
+            while (words.hasNext()) {
+                keys.add(lemmaKey(pos, Morphology.normalize(words.next().getLemma())));
+            }
+
+            final Iterator<Exc> exceptions = dictionary.getExceptionIterator(pos);
+
+            while (exceptions.hasNext()) {
+                keys.add(exceptionKey(pos, Morphology.normalize(exceptions.next().getLemma())));
+            }
+        }
+
+        return keys;
+    }
+
+
+    protected static LemmaFilter build(final List<String> keys, final BloomFilter filter) {
+        for (String key : keys) {
+            filter.put(key);
+        }
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info("lemma filter: " + keys.size() + " forms in " + (filter.getBitCount() / 8L) + " bytes");
+        }
+
+        return new LemmaFilter(filter);
+    }
+
+
+    /**
+     * Load a filter saved by save().
+     */
+
+    public static LemmaFilter load(final File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return new LemmaFilter(BloomFilter.readFrom(in));
+        }
+    }
+
+
+    public void save(final File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            filter.writeTo(out);
+        }
+    }
+
+
+    public BloomFilter getBloomFilter() {
+        return filter;
+    }
+
+
+    /**
+     * @return false if a lookup of the text can not find a lemma,
+     * true if it may
+     */
+
+    public boolean mightHaveLemma(final POS pos, final String text) {
+        if ((pos != POS.NOUN) && (pos != POS.ADJECTIVE)) {
+            return true;
+        }
+
+        if ((text == null) || text.isEmpty()) {
+            return false;
+        }
+
+        // each text which the operations look up as an exception form
+
+        final List<String> probes = new ArrayList<>();
+        probes.add(text);
+        probes.addAll(Morphology.detach(pos, text));
+
+        for (String token : Morphology.split(text)) {
+            probes.add(token);
+            probes.addAll(Morphology.detach(pos, token));
+        }
+
+        for (String probe : probes) {
+            if (filter.mightContain(exceptionKey(pos, Morphology.normalize(probe)))) {
+                return true;
+            }
+        }
+
+        try {
+            return morphology.lookupBaseForm(pos, text) != null;
+        }
+        catch (Morphology.TooManyProbesException e) {
+            return true;
+        }
+    }
+
+
+    protected static String lemmaKey(final POS pos, final String form) {
+        return pos.getKey() + ':' + form;
+    }
+
+
+    protected static String exceptionKey(final POS pos, final String form) {
+        return pos.getKey() + '!' + form;
+    }
+
+
+    /**
+     * Build the filter from the default WordNet dictionary and save
+     * it, for WordNet.setLemmaFilter(LemmaFilter.load(file)).
+     *
+     * usage: LemmaFilter output_file [fpp | -bytes max_bytes]
+     */
+
+    public static void main(final String[] args) throws Exception {
+        final Dictionary dictionary = Dictionary.getDefaultResourceInstance();
+        final LemmaFilter lemma_filter;
+
+        if ((args.length > 2) && "-bytes".equals(args[1])) {
+            lemma_filter = build(dictionary, Long.parseLong(args[2]));
+        }
+        else {
+            lemma_filter = build(dictionary, (args.length > 1) ? Double.parseDouble(args[1]) : DEFAULT_FPP);
+        }
+
+        lemma_filter.save(new File(args[0]));
+    }
+}
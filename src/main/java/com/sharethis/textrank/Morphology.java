@@ -0,0 +1,407 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.extjwnl.data.POS;
+
+
+/**
+ * Mirror of the default extjwnl morphological processor (as set up by
+ * its WordNet 3.1 resource configuration) over any lexicon, so that
+ * lookups against a Bloom filter or a prebuilt index resolve the
+ * same base form as Dictionary lookups do.
+ *
+ * The processor runs these operations in order, and the first form
+ * found by the first operation that finds any is the result:
+ *
+ * 1. the exception forms of the whole text;
+ * 2. the whole text with each matching suffix detached, as a lemma
+ *    or via its exception forms;
+ * 3. the tokens of the text (runs of a-z and '), each with its own
+ *    lemma, exception and detached forms, then each span of tokens,
+ *    longest first, in every combination of forms, joined by space
+ *    or hyphen or nothing.
+ */
+
+public class Morphology {
+
+    /**
+     * Source of lemmas and exception forms, keyed by normalized text.
+     */
+
+    public interface Lexicon {
+        boolean isLemma(POS pos, String lemma);
+
+        /**
+         * @return the base forms for an exception form, or null
+         */
+
+        List<String> getExceptions(POS pos, String form);
+    }
+
+
+    /**
+     * Public definitions.
+     */
+
+    // detachment rules of the extjwnl resource configuration, as
+    // suffix=replacement pairs
+
+    public final static String NOUN_SUFFIXES = "|s=|ses=s|xes=x|zes=z|ches=ch|shes=sh|men=man|ies=y|";
+    public final static String VERB_SUFFIXES = "|s=|ies=y|es=e|es=|ed=e|ed=|ing=e|ing=|";
+    public final static String ADJECTIVE_SUFFIXES = "|er=|est=|er=e|est=e|";
+
+    public final static String[] DELIMITERS = { " ", "-" };
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final static String[][] NOUN_RULES = parseRules(NOUN_SUFFIXES);
+    protected final static String[][] VERB_RULES = parseRules(VERB_SUFFIXES);
+    protected final static String[][] ADJECTIVE_RULES = parseRules(ADJECTIVE_SUFFIXES);
+
+
+    /**
+     * Signals that a lookup needed more probes than allowed.
+     */
+
+    public static class TooManyProbesException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public TooManyProbesException() {
+            super(null, null, false, false);
+        }
+    }
+
+    protected final Lexicon lexicon;
+    protected final int max_probes;
+
+
+    /**
+     * Constructor.
+     *
+     * @param max_probes bound on the lexicon probes per lookup, past
+     * which lookupBaseForm() throws TooManyProbesException, or 0 for
+     * none
+     */
+
+    public Morphology(final Lexicon lexicon, final int max_probes) {
+        this.lexicon = lexicon;
+        this.max_probes = (max_probes > 0) ? max_probes : Integer.MAX_VALUE;
+    }
+
+
+    /**
+     * @return the normalized lemma of the first base form found, as
+     * Dictionary.getMorphologicalProcessor().lookupBaseForm() would
+     * find it, or null
+     */
+
+    public String lookupBaseForm(final POS pos, final String derivation) {
+        if ((derivation == null) || derivation.isEmpty()) {
+            return null;
+        }
+
+        final List<String> forms = new ArrayList<>();
+        final int[] probes = { 0 };
+
+        if (lookupExceptions(pos, derivation, forms)
+            || detachSuffixes(pos, derivation, forms, probes)
+            || tokenize(pos, derivation, forms, probes)) {
+            final String form = normalize(forms.get(0));
+
+            return lexicon.isLemma(pos, form) ? form : null;
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Normalize text the way Dictionary lookups do.
+     */
+
+    public static String normalize(final String text) {
+        return text.trim().toLowerCase().replace(' ', '_');
+    }
+
+
+    /**
+     * Split text into tokens, the way the tokenizer operation does:
+     * runs of lowercase letters and apostrophes.
+     */
+
+    public static List<String> split(final String text) {
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+
+            if (((c >= 'a') && (c <= 'z')) || (c == '\'')) {
+                sb.append(c);
+            }
+            else if (sb.length() > 0) {
+                tokens.add(sb.toString());
+                sb.setLength(0);
+            }
+        }
+
+        if (sb.length() > 0) {
+            tokens.add(sb.toString());
+        }
+
+        return tokens;
+    }
+
+
+    /**
+     * @return the text with each matching suffix detached, in rule
+     * order
+     */
+
+    public static List<String> detach(final POS pos, final String text) {
+        final List<String> stems = new ArrayList<>(2);
+
+        for (String[] rule : rulesFor(pos)) {
+            if (text.endsWith(rule[0])) {
+                stems.add(text.substring(0, text.length() - rule[0].length()) + rule[1]);
+            }
+        }
+
+        return stems;
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // operations
+    //////////////////////////////////////////////////////////////////////
+
+    protected boolean lookupExceptions(final POS pos, final String text, final List<String> forms) {
+        final List<String> exceptions = lexicon.getExceptions(pos, normalize(text));
+
+        if (exceptions == null) {
+            return false;
+        }
+
+        for (String form : exceptions) {
+            add(forms, form);
+        }
+
+        return true;
+    }
+
+
+    protected boolean lookupIndexWord(final POS pos, final String text, final List<String> forms, final int[] probes) {
+        if (++probes[0] > max_probes) {
+            throw new TooManyProbesException();
+        }
+
+        if (lexicon.isLemma(pos, normalize(text))) {
+            add(forms, text);
+            return true;
+        }
+
+        return false;
+    }
+
+
+    protected boolean detachSuffixes(final POS pos, final String text, final List<String> forms, final int[] probes) {
+        boolean found = false;
+
+        for (String stem : detach(pos, text)) {
+            if (lookupIndexWord(pos, stem, forms, probes)) {
+                found = true;
+            }
+
+            if (lookupExceptions(pos, stem, forms)) {
+                found = true;
+            }
+        }
+
+        return found;
+    }
+
+
+    protected boolean tokenize(final POS pos, final String text, final List<String> forms, final int[] probes) {
+        final List<String> tokens = split(text);
+        final List<List<String>> token_forms = new ArrayList<>(tokens.size());
+
+        for (String token : tokens) {
+            final List<String> token_set = new ArrayList<>(4);
+            token_set.add(token);
+
+            lookupIndexWord(pos, token, token_set, probes);
+            lookupExceptions(pos, token, token_set);
+            detachSuffixes(pos, token, token_set, probes);
+
+            token_forms.add(token_set);
+        }
+
+        boolean found = false;
+
+        for (int i = 0; i < token_forms.size(); i++) {
+            for (int j = token_forms.size() - 1; j >= i; j--) {
+                if (tryAllCombinations(pos, token_forms, i, j, forms, probes)) {
+                    found = true;
+                }
+            }
+        }
+
+        return found;
+    }
+
+
+    /**
+     * Try each combination of the forms of the tokens from..to, the
+     * last token varying fastest.
+     */
+
+    protected boolean tryAllCombinations(final POS pos, final List<List<String>> token_forms, final int from, final int to, final List<String> forms, final int[] probes) {
+        final int n = to - from + 1;
+        final int[] index = new int[n];
+        final String[] parts = new String[n];
+        boolean found = false;
+
+        while (true) {
+            for (int k = 0; k < n; k++) {
+                parts[k] = token_forms.get(from + k).get(index[k]);
+            }
+
+            for (String delimiter : DELIMITERS) {
+                if (tryAllJoins(pos, parts, delimiter, forms, probes)) {
+                    found = true;
+                }
+            }
+
+            // advance the odometer
+
+            int k = n - 1;
+
+            while ((k >= 0) && (index[k] == token_forms.get(from + k).size() - 1)) {
+                index[k] = 0;
+                k--;
+            }
+
+            if (k < 0) {
+                return found;
+            }
+
+            index[k]++;
+        }
+    }
+
+
+    /**
+     * Try each join of the parts, with either the delimiter or
+     * nothing between each pair, starting with all delimiters.
+     */
+
+    protected boolean tryAllJoins(final POS pos, final String[] parts, final String delimiter, final List<String> forms, final int[] probes) {
+        final int joints = parts.length - 1;
+        final boolean[] glued = new boolean[Math.max(joints, 0)];
+        final StringBuilder sb = new StringBuilder();
+        boolean found = false;
+
+        while (true) {
+            sb.setLength(0);
+
+            for (int k = 0; k < parts.length; k++) {
+                if ((k > 0) && !glued[k - 1]) {
+                    sb.append(delimiter);
+                }
+
+                sb.append(parts[k]);
+            }
+
+            if (lookupIndexWord(pos, sb.toString(), forms, probes)) {
+                found = true;
+            }
+
+            // binary increment, with the last joint as the low bit
+
+            int k = joints - 1;
+
+            while ((k >= 0) && glued[k]) {
+                glued[k--] = false;
+            }
+
+            if (k < 0) {
+                return found;
+            }
+
+            glued[k] = true;
+        }
+    }
+
+
+    protected static void add(final List<String> forms, final String form) {
+        if (!forms.contains(form)) {
+            forms.add(form);
+        }
+    }
+
+
+    protected static String[][] rulesFor(final POS pos) {
+        if (pos == POS.NOUN) {
+            return NOUN_RULES;
+        }
+        else if (pos == POS.VERB) {
+            return VERB_RULES;
+        }
+        else if (pos == POS.ADJECTIVE) {
+            return ADJECTIVE_RULES;
+        }
+
+        return new String[0][];
+    }
+
+
+    protected static String[][] parseRules(final String suffixes) {
+        final List<String[]> rules = new ArrayList<>();
+
+        for (String pair : suffixes.split("\\|")) {
+            if (!pair.isEmpty()) {
+                final int eq = pair.indexOf('=');
+                rules.add(new String[] { pair.substring(0, eq), pair.substring(eq + 1) });
+            }
+        }
+
+        return rules.toArray(new String[rules.size()][]);
+    }
+}
@@ -197,6 +197,10 @@ public class
 	final LinkedList<Integer> token_span = new LinkedList<>();
 
 	for (Sentence s : s_list) {
+	    if (Thread.interrupted()) {
+		throw new InterruptedException();
+	    }
+
 	    boolean span_marked = false;
 	    double max_rank = 0.0D;
 
@@ -0,0 +1,106 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import net.sf.extjwnl.data.POS;
+
+
+/**
+ * The part of WordNet around a lemma which PASS 3 links into the
+ * graph, as synset offsets: the senses of the lemma, the hypernyms
+ * of each sense, and the hyponyms of each of those hypernyms, i.e.,
+ * the siblings of the sense (plus the sense itself).
+ */
+
+public class Neighborhood {
+
+    /**
+     * Public members.
+     */
+
+    public final POS pos;
+    public final String lemma;
+    public final long[] synsets;
+    public final long[][] hypernyms;
+    public final long[][][] siblings;
+
+
+    /**
+     * Constructor.
+     *
+     * @param pos part of speech of the lemma
+     * @param lemma the lemma, so that the synsets read back by offset
+     * can be told apart in dumps and logs
+     * @param synsets offsets of the senses, in WordNet order
+     * @param hypernyms offsets of the hypernyms, per sense
+     * @param siblings offsets of the hyponyms, per hypernym per sense
+     */
+
+    public Neighborhood(final POS pos, final String lemma, final long[] synsets, final long[][] hypernyms, final long[][][] siblings) {
+        this.pos = pos;
+        this.lemma = lemma;
+        this.synsets = synsets;
+        this.hypernyms = hypernyms;
+        this.siblings = siblings;
+    }
+
+
+    /**
+     * Describe the lemma, its senses, and how many synsets lie
+     * around them.
+     */
+
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        int hypernym_count = 0;
+        int sibling_count = 0;
+
+        sb.append((pos == null) ? "?" : pos.getLabel()).append(' ').append(lemma).append(':');
+
+        for (int i = 0; i < synsets.length; i++) {
+            sb.append(' ').append(synsets[i]);
+            hypernym_count += hypernyms[i].length;
+
+            for (long[] hyponyms : siblings[i]) {
+                sibling_count += hyponyms.length;
+            }
+        }
+
+        sb.append(" (").append(synsets.length).append(" senses, ");
+        sb.append(hypernym_count).append(" hypernyms, ");
+        sb.append(sibling_count).append(" siblings)");
+
+        return sb.toString();
+    }
+
+}
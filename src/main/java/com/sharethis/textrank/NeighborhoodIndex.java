@@ -0,0 +1,569 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package com.sharethis.textrank;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.Exc;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.Dictionary;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Read-only index of the WordNet neighborhood of each noun and
+ * adjective lemma, precomputed offline by main() into one compact
+ * file, which WordNet can use in place of the extjwnl dictionary.
+ *
+ * The file gets memory-mapped rather than parsed, so opening it
+ * takes no time, and every JVM on a host which maps the same file
+ * shares its pages through the page cache.
+ *
+ * Layout: a header, then an open-addressing table of record
+ * positions, then the hyponym lists, then the records. Records are
+ * keyed the same as LemmaFilter: a lemma record holds the synset
+ * offset of each sense, with the offset of each hypernym and the
+ * position of its list of hyponyms, which lemmas that share the
+ * hypernym also share; an exception record holds the base forms of
+ * an exception form. Lookups resolve the lemma through Morphology,
+ * with the index as its lexicon, so they find the same lemma as the
+ * dictionary would.
+ */
+
+public class NeighborhoodIndex implements Morphology.Lexicon {
+
+    // logging
+
+    private final static Log LOG =
+        LogFactory.getLog(NeighborhoodIndex.class.getName());
+
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int MAGIC = 0x54524e49;
+    public final static int VERSION = 1;
+    public final static int HEADER_BYTES = 32;
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final static POS[] POS_LIST = LemmaFilter.POS_LIST;
+
+    protected final File file;
+    protected final MappedByteBuffer map;
+    protected final int capacity;
+    protected final int lemma_count;
+    protected final int exception_count;
+    protected final Morphology morphology;
+
+
+    /**
+     * Constructor.
+     */
+
+    protected NeighborhoodIndex(final File file, final MappedByteBuffer map) throws IOException {
+        this.file = file;
+        this.map = map;
+
+        if ((map.capacity() < HEADER_BYTES) || (map.getInt(0) != MAGIC) || (map.getInt(4) != VERSION)) {
+            throw new IOException("not a neighborhood index: " + file);
+        }
+
+        capacity = map.getInt(8);
+        lemma_count = map.getInt(12);
+        exception_count = map.getInt(16);
+
+        // find() probes the table by masking, and stops at an empty slot
+
+        if ((capacity <= 0) || ((capacity & (capacity - 1)) != 0)) {
+            throw new IOException("neighborhood index table size is not a power of two: " + capacity + " in " + file);
+        }
+
+        if (HEADER_BYTES + 4L * capacity > map.capacity()) {
+            throw new IOException("neighborhood index truncated within its table: " + file);
+        }
+
+        if ((lemma_count < 0) || (exception_count < 0) || ((long) lemma_count + exception_count >= capacity)) {
+            throw new IOException("neighborhood index table has no empty slot: " + file);
+        }
+
+        morphology = new Morphology(this, 0);
+    }
+
+
+    /**
+     * Map an index built by build().
+     */
+
+    public static NeighborhoodIndex open(final File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("neighborhood index too large: " + file);
+            }
+
+            // the mapping stays valid after the channel closes
+            final MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            final NeighborhoodIndex index = new NeighborhoodIndex(file, map);
+
+            if (LOG.isInfoEnabled()) {
+                LOG.info("neighborhood index: " + index.lemma_count + " lemmas, " + index.exception_count + " exception forms in " + map.capacity() + " bytes");
+            }
+
+            return index;
+        }
+    }
+
+
+    /**
+     * Lookup the first lemma found, as WordNet.getLemma() would, and
+     * read its neighborhood.
+     *
+     * @return the neighborhood, or null if there is no lemma
+     * @throws IllegalArgumentException if the part of speech is
+     * neither noun nor adjective, which the index does not cover
+     */
+
+    public Neighborhood lookup(final POS pos, final String derivation) {
+        if ((pos != POS.NOUN) && (pos != POS.ADJECTIVE)) {
+            throw new IllegalArgumentException("neighborhood index covers nouns and adjectives only, not " + pos + ": " + file);
+        }
+
+        final String lemma = morphology.lookupBaseForm(pos, derivation);
+
+        if (lemma == null) {
+            return null;
+        }
+
+        final int record = find(LemmaFilter.lemmaKey(pos, lemma));
+
+        // spell the lemma the way IndexWord.getLemma() does
+        return (record == 0) ? null : readNeighborhood(record, pos, lemma.replace('_', ' '));
+    }
+
+
+    public boolean isLemma(final POS pos, final String lemma) {
+        return find(LemmaFilter.lemmaKey(pos, lemma)) != 0;
+    }
+
+
+    public List<String> getExceptions(final POS pos, final String form) {
+        final int record = find(LemmaFilter.exceptionKey(pos, form));
+
+        if (record == 0) {
+            return null;
+        }
+
+        int p = skipKey(record);
+        final int n = map.getShort(p) & 0xffff;
+        final List<String> forms = new ArrayList<>(n);
+
+        p += 2;
+
+        for (int i = 0; i < n; i++) {
+            forms.add(readString(p));
+            p += 2 + (map.getShort(p) & 0xffff);
+        }
+
+        return forms;
+    }
+
+
+    /**
+     * @return the key of each record, as LemmaFilter keys them
+     */
+
+    public List<String> getKeys() {
+        final List<String> keys = new ArrayList<>(lemma_count + exception_count);
+
+        for (int slot = 0; slot < capacity; slot++) {
+            final int record = map.getInt(HEADER_BYTES + slot * 4);
+
+            if (record != 0) {
+                keys.add(readString(record));
+            }
+        }
+
+        return keys;
+    }
+
+
+    public int getLemmaCount() {
+        return lemma_count;
+    }
+
+
+    public int getExceptionCount() {
+        return exception_count;
+    }
+
+
+    public long getByteSize() {
+        return map.capacity();
+    }
+
+
+    public File getFile() {
+        return file;
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // reading
+    //////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return the position of the record for the key, or 0
+     */
+
+    protected int find(final String key) {
+        final byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        final int mask = capacity - 1;
+        int slot = hash(bytes) & mask;
+
+        while (true) {
+            final int record = map.getInt(HEADER_BYTES + slot * 4);
+
+            if ((record == 0) || keyEquals(record, bytes)) {
+                return record;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+
+    protected boolean keyEquals(final int record, final byte[] bytes) {
+        if ((map.getShort(record) & 0xffff) != bytes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (map.get(record + 2 + i) != bytes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    protected int skipKey(final int record) {
+        return record + 2 + (map.getShort(record) & 0xffff);
+    }
+
+
+    protected String readString(final int p) {
+        final byte[] bytes = new byte[map.getShort(p) & 0xffff];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = map.get(p + 2 + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    protected Neighborhood readNeighborhood(final int record, final POS pos, final String lemma) {
+        int p = skipKey(record);
+        final int n = map.getInt(p);
+        final long[] synsets = new long[n];
+        final long[][] hypernyms = new long[n][];
+        final long[][][] siblings = new long[n][][];
+
+        p += 4;
+
+        for (int i = 0; i < n; i++) {
+            synsets[i] = map.getLong(p);
+
+            final int n_hyp = map.getInt(p + 8);
+
+            hypernyms[i] = new long[n_hyp];
+            siblings[i] = new long[n_hyp][];
+            p += 12;
+
+            for (int j = 0; j < n_hyp; j++) {
+                hypernyms[i][j] = map.getLong(p);
+                siblings[i][j] = readList(map.getInt(p + 8));
+                p += 12;
+            }
+        }
+
+        return new Neighborhood(pos, lemma, synsets, hypernyms, siblings);
+    }
+
+
+    protected long[] readList(final int p) {
+        final long[] list = new long[map.getInt(p)];
+
+        for (int k = 0; k < list.length; k++) {
+            list[k] = map.getLong(p + 4 + k * 8);
+        }
+
+        return list;
+    }
+
+
+    protected static int hash(final byte[] bytes) {
+        // FNV-1a, then a final mix to spread the low bits
+
+        int h = 0x811c9dc5;
+
+        for (byte b : bytes) {
+            h ^= (b & 0xff);
+            h *= 0x01000193;
+        }
+
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+
+        return h;
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // building
+    //////////////////////////////////////////////////////////////////////
+
+    /**
+     * Precompute the neighborhood of every noun and adjective lemma in
+     * the dictionary, along with the exception forms, into the given
+     * file. The file gets written aside then moved into place, so a
+     * running JVM which maps the old file keeps its pages.
+     */
+
+    public static void build(final Dictionary dictionary, final File file) throws JWNLException, IOException {
+        final Map<String, Object> records = new LinkedHashMap<>();
+        final Map<String, Integer> list_positions = new HashMap<>();
+        final List<long[]> lists = new ArrayList<>();
+        int list_bytes = 0;
+        int lemma_count = 0;
+        int exception_count = 0;
+
+        for (POS pos : POS_LIST) {
+            final Iterator<IndexWord> words = dictionary.getIndexWordIterator(pos);
+
+            while (words.hasNext()) {
+                final IndexWord iw = words.next();
+                final String key = LemmaFilter.lemmaKey(pos, Morphology.normalize(iw.getLemma()));
+
+                if (records.containsKey(key)) {
+                    continue;
+                }
+
+                final Neighborhood hood = WordNet.expand(iw);
+
+                for (int i = 0; i < hood.hypernyms.length; i++) {
+                    for (int j = 0; j < hood.hypernyms[i].length; j++) {
+                        final String list_key = pos.getKey() + hood.hypernyms[i][j];
+
+                        if (!list_positions.containsKey(list_key)) {
+                            list_positions.put(list_key, list_bytes);
+                            lists.add(hood.siblings[i][j]);
+                            list_bytes += 4 + 8 * hood.siblings[i][j].length;
+                        }
+                    }
+                }
+
+                records.put(key, hood);
+                lemma_count++;
+            }
+
+            final Iterator<Exc> exceptions = dictionary.getExceptionIterator(pos);
+
+            while (exceptions.hasNext()) {
+                final Exc exc = exceptions.next();
+                final String key = LemmaFilter.exceptionKey(pos, Morphology.normalize(exc.getLemma()));
+
+                if (!records.containsKey(key)) {
+                    records.put(key, new ArrayList<>(exc.getExceptions()));
+                    exception_count++;
+                }
+            }
+        }
+
+        // place the records after the table and the hyponym lists
+
+        int capacity = 1024;
+
+        while (capacity < 2 * records.size()) {
+            capacity <<= 1;
+        }
+
+        final int lists_start = HEADER_BYTES + capacity * 4;
+        final int[] table = new int[capacity];
+        long p = lists_start + (long) list_bytes;
+
+        for (Map.Entry<String, Object> entry : records.entrySet()) {
+            if (p > Integer.MAX_VALUE) {
+                throw new IOException("neighborhood index too large");
+            }
+
+            final byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            int slot = hash(bytes) & (capacity - 1);
+
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+
+            table[slot] = (int) p;
+            p += 2 + bytes.length + recordBytes(entry.getValue());
+        }
+
+        final File tmp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(capacity);
+            out.writeInt(lemma_count);
+            out.writeInt(exception_count);
+            out.writeInt(lists.size());
+            out.writeLong(0L);
+
+            for (int record : table) {
+                out.writeInt(record);
+            }
+
+            for (long[] list : lists) {
+                out.writeInt(list.length);
+
+                for (long offset : list) {
+                    out.writeLong(offset);
+                }
+            }
+
+            for (Map.Entry<String, Object> entry : records.entrySet()) {
+                writeString(out, entry.getKey());
+
+                if (entry.getValue() instanceof Neighborhood) {
+                    final Neighborhood hood = (Neighborhood) entry.getValue();
+                    final String pos_key = entry.getKey().substring(0, 1);
+
+                    out.writeInt(hood.synsets.length);
+
+                    for (int i = 0; i < hood.synsets.length; i++) {
+                        out.writeLong(hood.synsets[i]);
+                        out.writeInt(hood.hypernyms[i].length);
+
+                        for (int j = 0; j < hood.hypernyms[i].length; j++) {
+                            out.writeLong(hood.hypernyms[i][j]);
+                            out.writeInt(lists_start + list_positions.get(pos_key + hood.hypernyms[i][j]));
+                        }
+                    }
+                }
+                else {
+                    @SuppressWarnings("unchecked")
+                    final List<String> forms = (List<String>) entry.getValue();
+
+                    out.writeShort(forms.size());
+
+                    for (String form : forms) {
+                        writeString(out, form);
+                    }
+                }
+            }
+        }
+
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info("neighborhood index: " + lemma_count + " lemmas, " + exception_count + " exception forms, " + lists.size() + " hyponym lists in " + file.length() + " bytes");
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    protected static int recordBytes(final Object value) {
+        if (value instanceof Neighborhood) {
+            final Neighborhood hood = (Neighborhood) value;
+            int n = 4;
+
+            for (long[] hypernyms : hood.hypernyms) {
+                n += 12 + 12 * hypernyms.length;
+            }
+
+            return n;
+        }
+
+        int n = 2;
+
+        for (String form : (List<String>) value) {
+            n += 2 + form.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        return n;
+    }
+
+
+    protected static void writeString(final DataOutputStream out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+
+    /**
+     * Build the index from the default WordNet dictionary, for
+     * new WordNet(NeighborhoodIndex.open(file)).
+     *
+     * usage: NeighborhoodIndex output_file
+     */
+
+    public static void main(final String[] args) throws Exception {
+        build(Dictionary.getDefaultResourceInstance(), new File(args[0]));
+    }
+}
@@ -68,6 +68,15 @@ public class
     public boolean marked = false;
     public NodeValue value = null;
 
+    // dense id, interned by the first graph this node was put into;
+    // not to be confused with getId(), a hex hash for dumps
+
+    public int dict_id = -1;
+
+    // scratch slot, used while freezing the graph into arrays
+
+    int index = -1;
+
 
     /**
      * Private constructor.
@@ -0,0 +1,233 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.Arrays;
+
+
+/**
+ * Open-addressing hash table that interns node keys as dense int ids,
+ * in order of first sight, and keeps the node for each id.
+ */
+
+public class NodeDictionary {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int INITIAL_CAPACITY = 256;
+
+    /**
+     * Protected members.
+     */
+
+    protected String[] slot_key;
+    protected int[] slot_id;
+    protected String[] keys;
+    protected Node[] nodes;
+    protected int size = 0;
+
+
+    /**
+     * Constructor.
+     */
+
+    public NodeDictionary() {
+        slot_key = new String[INITIAL_CAPACITY * 2];
+        slot_id = new int[INITIAL_CAPACITY * 2];
+        keys = new String[INITIAL_CAPACITY];
+        nodes = new Node[INITIAL_CAPACITY];
+    }
+
+
+    /**
+     * Number of ids handed out so far.
+     */
+
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Lookup the id for a key.
+     *
+     * @return the id, or -1 if the key has not been seen
+     */
+
+    public int getId(final String key) {
+        final int mask = slot_key.length - 1;
+
+        for (int slot = mix(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            final String k = slot_key[slot];
+
+            if (k == null) {
+                return -1;
+            }
+            else if (k.equals(key)) {
+                return slot_id[slot];
+            }
+        }
+    }
+
+
+    /**
+     * Lookup the node for a key.
+     */
+
+    public Node getNode(final String key) {
+        final int id = getId(key);
+
+        return (id < 0) ? null : nodes[id];
+    }
+
+
+    /**
+     * Accessor for the node with the given id, which is null once the
+     * node has been removed, or if the id was never handed out.
+     */
+
+    public Node getNode(final int id) {
+        return ((id >= 0) && (id < size)) ? nodes[id] : null;
+    }
+
+
+    /**
+     * Accessor for the key with the given id.
+     */
+
+    public String getKey(final int id) {
+        return keys[id];
+    }
+
+
+    /**
+     * Associate a node with a key, assigning the next id on first
+     * sight.
+     *
+     * @return the id for the key
+     */
+
+    public int put(final String key, final Node node) {
+        int id = getId(key);
+
+        if (id < 0) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+
+            if ((size + 1) * 2 > slot_key.length) {
+                rehash(slot_key.length * 2);
+            }
+
+            id = size++;
+            keys[id] = key;
+            insert(key, id);
+        }
+
+        nodes[id] = node;
+
+        return id;
+    }
+
+
+    /**
+     * Drop the node for a key. The key keeps its id, so putting it
+     * back later reuses the same one.
+     */
+
+    public void remove(final String key) {
+        final int id = getId(key);
+
+        if (id >= 0) {
+            nodes[id] = null;
+        }
+    }
+
+
+    /**
+     * Drop all keys and nodes.
+     */
+
+    public void clear() {
+        Arrays.fill(slot_key, null);
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(nodes, 0, size, null);
+        size = 0;
+    }
+
+
+    /**
+     * Place a key in the first free slot of its probe sequence.
+     */
+
+    private void insert(final String key, final int id) {
+        final int mask = slot_key.length - 1;
+        int slot = mix(key.hashCode()) & mask;
+
+        while (slot_key[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+
+        slot_key[slot] = key;
+        slot_id[slot] = id;
+    }
+
+
+    /**
+     * Grow the slot table, re-inserting every key.
+     */
+
+    private void rehash(final int capacity) {
+        slot_key = new String[capacity];
+        slot_id = new int[capacity];
+
+        for (int id = 0; id < size; id++) {
+            insert(keys[id], id);
+        }
+    }
+
+
+    /**
+     * Spread the bits of a hash code, since linear probing does not
+     * cope well with the clustered codes of similar strings.
+     */
+
+    private static int mix(final int h) {
+        final int x = h * 0x9E3779B9;
+
+        return x ^ (x >>> 16);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event spanning one pass of a TextRankRun, labeled
+ * as in markTime(), with the counts of the run so far.
+ */
+
+@Name("com.sharethis.textrank.Pass")
+@Label("TextRank Pass")
+@Category("TextRank")
+@Description("One pass of TextRank over a document")
+@StackTrace(false)
+public class PassEvent extends Event {
+
+    @Label("Pass")
+    public String pass;
+
+    @Label("Text Length")
+    @Description("Length of the text in characters")
+    public int text_length;
+
+    @Label("Sentences")
+    public int sentences;
+
+    @Label("Graph Nodes")
+    public int graph_nodes;
+
+    @Label("Rank Iterations")
+    public int iterations;
+
+    @Label("WordNet Lookups")
+    public int wordnet_lookups;
+
+    @Label("WordNet Hits")
+    public int wordnet_hits;
+
+
+    /**
+     * Copy the counts so far from the metrics of a run.
+     */
+
+    public void set(final String pass, final int text_length, final RunMetrics metrics) {
+        this.pass = pass;
+        this.text_length = text_length;
+        this.sentences = metrics.sentences;
+        this.graph_nodes = metrics.graph_nodes;
+        this.iterations = metrics.keyword_iterations + metrics.ngram_iterations;
+        this.wordnet_lookups = metrics.wordnet_lookups;
+        this.wordnet_hits = metrics.wordnet_hits;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * Power iteration with an L1 residual: the same sweeps as Jacobi, but
+ * iteration stops once the L1 norm of the rank changes, averaged per
+ * node, drops below the tolerance. Averaging keeps one tolerance
+ * meaningful across graph sizes.
+ */
+
+public class PowerIterationSolver extends JacobiSolver {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static double DEFAULT_TOLERANCE = 1.0E-4D;
+
+
+    /**
+     * Constructor.
+     */
+
+    public PowerIterationSolver() {
+        this(DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE);
+    }
+
+
+    /**
+     * Constructor, running large graphs on the common pool.
+     */
+
+    public PowerIterationSolver(final int max_iterations, final double tolerance) {
+        super(max_iterations, tolerance);
+    }
+
+
+    /**
+     * Constructor.
+     */
+
+    public PowerIterationSolver(final int max_iterations, final double tolerance, final ForkJoinPool pool, final int parallel_threshold) {
+        super(max_iterations, tolerance, pool, parallel_threshold);
+    }
+
+
+    /**
+     * Measure convergence after a sweep, here the mean absolute rank
+     * change.
+     */
+
+    protected double residual(final CompactGraph cg, final double standard_error) {
+        return cg.getL1Residual() / (double) cg.size;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+
+/**
+ * Outcome of one rank solve: how many sweeps it took and where the
+ * residual ended up.
+ */
+
+public class RankReport {
+
+    /**
+     * Public members.
+     */
+
+    public final String solver;
+    public final int iterations;
+    public final double residual;
+    public final boolean converged;
+    public final boolean top_k_stable;
+    public final int iterations_saved;
+    public final long local_updates;
+
+
+    /**
+     * Constructor.
+     *
+     * @param top_k_stable whether iteration stopped early on a stable
+     * top-K, rather than on the residual or the cap
+     * @param iterations_saved estimated sweeps the residual test
+     * would still have needed, when stopped early
+     */
+
+    public RankReport(final String solver, final int iterations, final double residual, final boolean converged, final boolean top_k_stable, final int iterations_saved) {
+        this(solver, iterations, residual, converged, top_k_stable, iterations_saved, 0L);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param local_updates node updates made before the global
+     * iterations when warm starting, or -1 if the local budget ran out
+     */
+
+    public RankReport(final String solver, final int iterations, final double residual, final boolean converged, final boolean top_k_stable, final int iterations_saved, final long local_updates) {
+        this.solver = solver;
+        this.iterations = iterations;
+        this.residual = residual;
+        this.converged = converged;
+        this.top_k_stable = top_k_stable;
+        this.iterations_saved = iterations_saved;
+        this.local_updates = local_updates;
+    }
+
+
+    /**
+     * Serialize as text.
+     */
+
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+
+        sb.append(solver);
+
+        if (local_updates != 0L) {
+            sb.append(" local updates: ").append(local_updates);
+        }
+
+        sb.append(" iterations: ").append(iterations);
+        sb.append(" residual: ").append(residual);
+
+        if (top_k_stable) {
+            sb.append(" top-k stable, saved: ").append(iterations_saved);
+        }
+        else if (!converged) {
+            sb.append(" (not converged)");
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+
+/**
+ * Selection over primitive rank arrays, ordering nodes by descending
+ * rank and breaking ties by ascending index (i.e., the order a stable
+ * sort of the node list would produce).
+ */
+
+public class RankSelection {
+
+    /**
+     * Private constructor, static methods only.
+     */
+
+    private RankSelection() {
+    }
+
+
+    /**
+     * Determine whether node <code>i</code> ranks ahead of node
+     * <code>j</code>.
+     */
+
+    public static boolean ahead(final double[] rank, final int i, final int j) {
+        return (rank[i] > rank[j]) || ((rank[i] == rank[j]) && (i < j));
+    }
+
+
+    /**
+     * Select the indices of the top <code>k</code> among the first
+     * <code>size</code> ranks, in rank order, using a bounded heap:
+     * O(n log k).
+     */
+
+    public static int[] topK(final double[] rank, final int size, final int k) {
+        final int limit = Math.min(k, size);
+        final int[] heap = new int[limit];
+        int count = 0;
+
+        // min-heap on rank order: the root is the weakest of the
+        // current top set
+
+        for (int i = 0; i < size; i++) {
+            if (count < limit) {
+                heap[count] = i;
+                siftUp(rank, heap, count++);
+            }
+            else if ((limit > 0) && ahead(rank, i, heap[0])) {
+                heap[0] = i;
+                siftDown(rank, heap, 0, count);
+            }
+        }
+
+        // drain the heap, weakest first, to fill in rank order
+
+        final int[] top = new int[count];
+
+        for (int n = count; n > 0; n--) {
+            top[n - 1] = heap[0];
+            heap[0] = heap[n - 1];
+            siftDown(rank, heap, 0, n - 1);
+        }
+
+        return top;
+    }
+
+
+    /**
+     * Partition the indices of the first <code>size</code> ranks so
+     * the top <code>k</code> come first, in no particular order, using
+     * quickselect: O(n) on average.
+     */
+
+    public static int[] select(final double[] rank, final int size, final int k) {
+        final int[] index = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            index[i] = i;
+        }
+
+        int lo = 0;
+        int hi = size - 1;
+
+        while ((lo < hi) && (k > lo) && (k <= hi)) {
+            final int p = partition(rank, index, lo, hi);
+
+            if (p == k) {
+                break;
+            }
+            else if (p < k) {
+                lo = p + 1;
+            }
+            else {
+                hi = p - 1;
+            }
+        }
+
+        return index;
+    }
+
+
+    /**
+     * Partition <code>index[lo .. hi]</code> around a median-of-three
+     * pivot, so entries ahead of it come first.
+     *
+     * @return final position of the pivot
+     */
+
+    private static int partition(final double[] rank, final int[] index, final int lo, final int hi) {
+        final int mid = (lo + hi) >>> 1;
+
+        // order lo, mid, hi, then park the median at hi
+
+        if (ahead(rank, index[mid], index[lo])) {
+            swap(index, lo, mid);
+        }
+
+        if (ahead(rank, index[hi], index[lo])) {
+            swap(index, lo, hi);
+        }
+
+        if (ahead(rank, index[mid], index[hi])) {
+            swap(index, mid, hi);
+        }
+
+        final int pivot = index[hi];
+        int store = lo;
+
+        for (int i = lo; i < hi; i++) {
+            if (ahead(rank, index[i], pivot)) {
+                swap(index, i, store++);
+            }
+        }
+
+        swap(index, store, hi);
+
+        return store;
+    }
+
+
+    /**
+     * Swap two entries.
+     */
+
+    private static void swap(final int[] index, final int i, final int j) {
+        final int x = index[i];
+        index[i] = index[j];
+        index[j] = x;
+    }
+
+
+    /**
+     * Restore the heap property upwards from position <code>p</code>.
+     */
+
+    private static void siftUp(final double[] rank, final int[] heap, int p) {
+        final int x = heap[p];
+
+        while (p > 0) {
+            final int parent = (p - 1) >>> 1;
+
+            if (!ahead(rank, heap[parent], x)) {
+                break;
+            }
+
+            heap[p] = heap[parent];
+            p = parent;
+        }
+
+        heap[p] = x;
+    }
+
+
+    /**
+     * Restore the heap property downwards from position
+     * <code>p</code>, within the first <code>n</code> entries.
+     */
+
+    private static void siftDown(final double[] rank, final int[] heap, int p, final int n) {
+        final int x = heap[p];
+
+        while (true) {
+            int child = (2 * p) + 1;
+
+            if (child >= n) {
+                break;
+            }
+
+            if ((child + 1 < n) && ahead(rank, heap[child], heap[child + 1])) {
+                child++;
+            }
+
+            if (!ahead(rank, x, heap[child])) {
+                break;
+            }
+
+            heap[p] = heap[child];
+            p = child;
+        }
+
+        heap[p] = x;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.concurrent.CancellationException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Strategy for iterating the ranks of a frozen graph until they
+ * converge. Solvers only carry configuration, so a single instance
+ * can be shared by concurrent runs.
+ */
+
+public abstract class RankSolver {
+
+    // logging
+
+    private final static Log LOG =
+        LogFactory.getLog(RankSolver.class.getName());
+
+    /**
+     * Public definitions.
+     */
+
+    public final static int DEFAULT_MAX_ITERATIONS = 100;
+
+    /**
+     * Protected members.
+     */
+
+    protected final int max_iterations;
+    protected final double tolerance;
+
+
+    /**
+     * Constructor.
+     *
+     * @param max_iterations cap on the number of sweeps, regardless
+     * of the graph size
+     * @param tolerance convergence threshold for the residual
+     */
+
+    protected RankSolver(final int max_iterations, final double tolerance) {
+        if (max_iterations < 1) {
+            throw new IllegalArgumentException("max_iterations must be positive: " + max_iterations);
+        }
+
+        this.max_iterations = max_iterations;
+        this.tolerance = tolerance;
+    }
+
+
+    /**
+     * Iterate the ranks of the given graph in place.
+     */
+
+    public RankReport solve(final CompactGraph cg) {
+        return solve(cg, null);
+    }
+
+
+    /**
+     * Iterate the ranks of the given graph in place, stopping early
+     * once the tracker reports a stable top-K (if given).
+     *
+     * @throws CancellationException if the calling thread gets
+     * interrupted, checked before each sweep
+     */
+
+    public RankReport solve(final CompactGraph cg, final TopKTracker tracker) {
+        final int cap = iterationCap(cg);
+
+        int iterations = 0;
+        double residual = Double.NaN;
+        double last_residual = Double.NaN;
+        boolean converged = false;
+        boolean top_k_stable = false;
+        int saved = 0;
+
+        prepare(cg);
+
+        while (iterations < cap) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("rank iteration interrupted after " + iterations + " sweeps");
+            }
+
+            last_residual = residual;
+            residual = sweep(cg);
+            iterations++;
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("iteration: " + iterations + " residual: " + residual);
+            }
+
+            if (residual < tolerance) {
+                converged = true;
+                break;
+            }
+
+            if ((tracker != null) && tracker.update(cg.rank, cg.size)) {
+                top_k_stable = true;
+                saved = estimateRemaining(residual, last_residual, cap - iterations);
+                break;
+            }
+        }
+
+        return new RankReport(getClass().getSimpleName(), iterations, residual, converged, top_k_stable, saved);
+    }
+
+
+    /**
+     * Determine whether this solver makes use of the ranks and node
+     * set from a previous run (see WarmStartSolver).
+     */
+
+    public boolean isWarmStart() {
+        return false;
+    }
+
+
+    /**
+     * Set up the graph before the first sweep.
+     */
+
+    protected void prepare(final CompactGraph cg) {
+    }
+
+
+    /**
+     * Run one sweep over the graph.
+     *
+     * @return residual after the sweep
+     */
+
+    protected abstract double sweep(final CompactGraph cg);
+
+
+    /**
+     * Estimate how many more sweeps the residual test would have
+     * needed, assuming it keeps shrinking at the last observed rate.
+     */
+
+    protected int estimateRemaining(final double residual, final double last_residual, final int remaining) {
+        final double rate = residual / last_residual;
+
+        if ((rate > 0.0D) && (rate < 1.0D) && (tolerance > 0.0D)) {
+            final double estimate = Math.ceil(Math.log(tolerance / residual) / Math.log(rate));
+
+            return (int) Math.min((double) remaining, Math.max(0.0D, estimate));
+        }
+
+        return remaining;
+    }
+
+
+    /**
+     * Number of sweeps allowed on the given graph: never more than
+     * the graph has nodes, and never more than the configured cap.
+     */
+
+    protected int iterationCap(final CompactGraph cg) {
+        return Math.min(cg.size, max_iterations);
+    }
+
+
+    /**
+     * Accessor for the iteration cap.
+     */
+
+    public int getMaxIterations() {
+        return max_iterations;
+    }
+
+
+    /**
+     * Accessor for the convergence tolerance.
+     */
+
+    public double getTolerance() {
+        return tolerance;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Metrics of one TextRankRun: the time of each pass in nanoseconds,
+ * plus counts of what the passes worked through.
+ *
+ * Only the thread running the current pass of the run writes these
+ * fields, and others read them once the run completes, so the fields
+ * need no locks. The one exception is pass_nanos, which the deadline
+ * thread reads when the run times out, mid-pass: writers and readers
+ * of pass_nanos synchronize on this object.
+ */
+
+public class RunMetrics {
+
+    /**
+     * Public members.
+     */
+
+    public final Map<String, Long> pass_nanos = new LinkedHashMap<>();
+
+    public int sentences = 0;
+    public int tokens = 0;
+    public int sentence_cache_hits = 0;
+    public int graph_nodes = 0;
+    public long graph_links = 0L;
+    public int ngram_nodes = 0;
+    public int synset_nodes = 0;
+    public int keyword_iterations = 0;
+    public int ngram_iterations = 0;
+    public int wordnet_lookups = 0;
+    public int wordnet_hits = 0;
+
+
+    /**
+     * @return total time of all the passes, in nanoseconds
+     */
+
+    public long getTotalNanos() {
+        long total = 0L;
+
+        for (long nanos : pass_nanos.values()) {
+            total += nanos;
+        }
+
+        return total;
+    }
+
+
+    /**
+     * Serialize to a string.
+     */
+
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+
+        for (Map.Entry<String, Long> entry : pass_nanos.entrySet()) {
+            sb.append(entry.getKey()).append("_ns: ").append(entry.getValue()).append(" ");
+        }
+
+        sb.append("sentences: ").append(sentences);
+        sb.append(" tokens: ").append(tokens);
+        sb.append(" sentence_cache_hits: ").append(sentence_cache_hits);
+        sb.append(" graph_nodes: ").append(graph_nodes);
+        sb.append(" graph_links: ").append(graph_links);
+        sb.append(" ngram_nodes: ").append(ngram_nodes);
+        sb.append(" synset_nodes: ").append(synset_nodes);
+        sb.append(" keyword_iterations: ").append(keyword_iterations);
+        sb.append(" ngram_iterations: ").append(ngram_iterations);
+        sb.append(" wordnet_lookups: ").append(wordnet_lookups);
+        sb.append(" wordnet_hits: ").append(wordnet_hits);
+
+        return sb.toString();
+    }
+}
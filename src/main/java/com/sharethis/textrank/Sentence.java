@@ -32,6 +32,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.sharethis.textrank;
 
+import com.sharethis.common.Digests;
+import com.sharethis.common.StripedLruCache;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -77,44 +80,59 @@ public class
     public static String
 	hexFormat (final byte[] b)
     {
-	final StringBuilder sb = new StringBuilder(b.length * 2);
-
-	for (int i = 0; i < b.length; i++) {
-	    String h = Integer.toHexString(b[i]);
-
-	    if (h.length() == 1) {
-		sb.append("0");
-	    }
-	    else if (h.length() == 8) {
-		h = h.substring(6);
-	    }
-
-	    sb.append(h);
-	}
-
-	return sb.toString().toUpperCase();
+	return Digests.hexFormat(b);
     }
 
 
     /**
-     * Main processing per sentence.
+     * Main processing per sentence. With a sentence cache set on the
+     * language model, a sentence seen before reuses its tokens and
+     * tags, skipping the tokenizer and the tagger.
+     *
+     * @return true if the tokens and tags came from the cache
      */
 
-    public void
+    public boolean
 	mapTokens (final LanguageModel lang, final Graph graph)
 	throws Exception
     {
-	token_list = lang.tokenizeSentence(text);
+	final StripedLruCache<String, String[][]> cache = lang.getSentenceCache();
+	String[] tag_list = null;
+	boolean cached = false;
+
+	if (cache != null) {
+	    md5_hash = Digests.md5Hex(text);
+
+	    final String[][] tagged = cache.get(md5_hash);
+
+	    if (tagged != null) {
+		token_list = tagged[0];
+		tag_list = tagged[1];
+		cached = true;
+	    }
+	}
 
-	// scan each token to determine part-of-speech
+	if (!cached) {
+	    token_list = lang.tokenizeSentence(text);
 
-	final String[] tag_list = lang.tagTokens(token_list);
+	    // scan each token to determine part-of-speech
+
+	    tag_list = lang.tagTokens(token_list);
+
+	    if (cache != null) {
+		cache.put(md5_hash, new String[][] { token_list, tag_list });
+	    }
+	}
 
 	// create nodes for the graph
 
 	Node last_node = null;
 	node_list = new Node[token_list.length];
 
+	final boolean weighted = graph.isWeighted();
+	final int[] id_list = weighted ? new int[token_list.length] : null;
+	int id_count = 0;
+
 	for (int i = 0; i < token_list.length; i++) {
 	    final String pos = tag_list[i];
 
@@ -124,12 +142,20 @@ public class
 
 	    if (lang.isRelevant(pos)) {
 		final String key = lang.getNodeKey(token_list[i], pos);
-		final KeyWord value = new KeyWord(token_list[i], pos);
-		final Node n = Node.buildNode(graph, key, value);
+		Node n = graph.get(key);
+
+		// only allocate a keyword on first sight of the key
+
+		if (n == null) {
+		    n = Node.buildNode(graph, key, new KeyWord(token_list[i], pos));
+		}
 
 		// emit nodes to construct the graph
 
-		if (last_node != null) {
+		if (weighted) {
+		    id_list[id_count++] = n.dict_id;
+		}
+		else if (last_node != null) {
 		    n.connect(last_node);
 		}
 
@@ -137,5 +163,13 @@ public class
 		node_list[i] = n;
 	    }
 	}
+
+	// weighted co-occurrence edges span a window of keywords
+
+	if (weighted) {
+	    graph.addCooccurrences(id_list, id_count);
+	}
+
+	return cached;
     }
 }
@@ -0,0 +1,331 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Bounded ring buffer of the documents which took longer than a
+ * threshold or missed their deadline, with the time of each pass they
+ * got through, so the pathological inputs can be found after the
+ * fact. The oldest entries get dropped once it is full.
+ *
+ * Entries are keyed by TextRank.contentHash(), the same as the
+ * result cache and store.
+ *
+ * Optionally, each captured document also gets spilled to a
+ * directory, as <code>text/&lt;hash&gt;.txt</code> with the input
+ * text and <code>meta/&lt;hash&gt;.tsv</code> with the timings. The
+ * <code>text</code> directory can be replayed as is through
+ * TextRankMain. Spills run on a thread of their own, so a large text
+ * never holds up the worker or the deadline timer, and the directory
+ * keeps only the most recent spills, as many as the ring holds.
+ */
+
+public class SlowDocumentLog {
+
+    // logging
+
+    private final static Log LOG =
+        LogFactory.getLog(SlowDocumentLog.class.getName());
+
+
+    /**
+     * Public definitions.
+     */
+
+    public final static long CLOSE_TIMEOUT_MILLIS = 30000L;
+
+
+    /**
+     * A captured document.
+     */
+
+    public static class Entry {
+
+        public final String hash;
+        public final int text_length;
+        public final long timestamp;
+        public final boolean timed_out;
+        public final long total_nanos;
+        public final Map<String, Long> pass_nanos;
+
+        public Entry(final String hash, final int text_length, final long timestamp, final boolean timed_out, final long total_nanos, final Map<String, Long> pass_nanos) {
+            this.hash = hash;
+            this.text_length = text_length;
+            this.timestamp = timestamp;
+            this.timed_out = timed_out;
+            this.total_nanos = total_nanos;
+            this.pass_nanos = Collections.unmodifiableMap(new LinkedHashMap<>(pass_nanos));
+        }
+
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+
+            sb.append("hash\t").append(hash).append("\n");
+            sb.append("text_length\t").append(text_length).append("\n");
+            sb.append("timestamp\t").append(timestamp).append("\n");
+            sb.append("timed_out\t").append(timed_out).append("\n");
+            sb.append("total_ns\t").append(total_nanos).append("\n");
+
+            for (Map.Entry<String, Long> entry : pass_nanos.entrySet()) {
+                sb.append(entry.getKey()).append("_ns\t").append(entry.getValue()).append("\n");
+            }
+
+            return sb.toString();
+        }
+    }
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final int capacity;
+    protected final long threshold_nanos;
+    protected final File spill_dir;
+    protected final ArrayDeque<Entry> entries;
+    protected final ExecutorService spill_executor;
+
+
+    /**
+     * Constructor, for an in-memory log only.
+     */
+
+    public SlowDocumentLog(final int capacity, final long threshold_millis) {
+        this(capacity, threshold_millis, null);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param spill_dir directory to spill the captured documents to,
+     * or null to keep them only in memory
+     */
+
+    public SlowDocumentLog(final int capacity, final long threshold_millis, final File spill_dir) {
+        this.capacity = capacity;
+        this.threshold_nanos = threshold_millis * 1000000L;
+        this.spill_dir = spill_dir;
+        this.entries = new ArrayDeque<>(capacity);
+        this.spill_executor = (spill_dir == null) ? null : Executors.newSingleThreadExecutor(r -> {
+            final Thread t = new Thread(r, "textrank-slow-spill");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+
+    /**
+     * Capture a completed run, if it took longer than the threshold.
+     *
+     * @return true if captured
+     */
+
+    public boolean offer(final String text, final RunMetrics metrics) {
+        if (metrics.getTotalNanos() < threshold_nanos) {
+            return false;
+        }
+
+        capture(text, metrics, false);
+        return true;
+    }
+
+
+    /**
+     * Capture a run which missed its deadline, with the timings of
+     * the passes it did complete; the first pass missing is the one
+     * it stalled in.
+     */
+
+    public void offerTimeout(final String text, final RunMetrics metrics) {
+        capture(text, metrics, true);
+    }
+
+
+    /**
+     * @return the captured documents, oldest first
+     */
+
+    public synchronized List<Entry> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+
+    /**
+     * Wait for the pending spills to get written.
+     */
+
+    public void flush(final long timeout_millis) throws InterruptedException, TimeoutException {
+        if (spill_executor == null) {
+            return;
+        }
+
+        try {
+            spill_executor.submit(() -> { }).get(timeout_millis, TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException e) {
+            // an empty task does not fail
+        }
+    }
+
+
+    /**
+     * Write the pending spills, waiting up to CLOSE_TIMEOUT_MILLIS,
+     * then stop the spill thread. The entries stay in memory, but
+     * documents captured after this are no longer spilled.
+     */
+
+    public void close() throws InterruptedException {
+        if (spill_executor == null) {
+            return;
+        }
+
+        spill_executor.shutdown();
+
+        if (!spill_executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            LOG.warn("slow document spills still pending after " + CLOSE_TIMEOUT_MILLIS + " ms: " + spill_dir);
+        }
+    }
+
+
+    /**
+     * Add an entry, dropping the oldest one if full, then spill it.
+     */
+
+    protected void capture(final String text, final RunMetrics metrics, final boolean timed_out) {
+        final Map<String, Long> pass_nanos;
+
+        synchronized (metrics) {
+            pass_nanos = new LinkedHashMap<>(metrics.pass_nanos);
+        }
+
+        long total_nanos = 0L;
+
+        for (long nanos : pass_nanos.values()) {
+            total_nanos += nanos;
+        }
+
+        final Entry entry = new Entry(TextRank.contentHash(text), text.length(), System.currentTimeMillis(), timed_out, total_nanos, pass_nanos);
+
+        synchronized (this) {
+            if (capacity <= 0) {
+                return;
+            }
+
+            while (entries.size() >= capacity) {
+                entries.removeFirst();
+            }
+
+            entries.addLast(entry);
+        }
+
+        if (spill_executor != null) {
+            try {
+                spill_executor.execute(() -> spill(text, entry));
+            }
+            catch (RejectedExecutionException e) {
+                // closed, so keep it in memory only
+            }
+        }
+    }
+
+
+    /**
+     * Write the text and timings of an entry to the spill directory.
+     */
+
+    protected void spill(final String text, final Entry entry) {
+        final File text_dir = new File(spill_dir, "text");
+        final File meta_dir = new File(spill_dir, "meta");
+
+        try {
+            Files.createDirectories(text_dir.toPath());
+            Files.createDirectories(meta_dir.toPath());
+
+            Files.write(new File(text_dir, entry.hash + ".txt").toPath(), text.getBytes(StandardCharsets.UTF_8));
+            Files.write(new File(meta_dir, entry.hash + ".tsv").toPath(), entry.toString().getBytes(StandardCharsets.UTF_8));
+
+            // drop the oldest spills beyond the capacity of the ring,
+            // also those left over by earlier processes
+
+            final File[] spilled = text_dir.listFiles((dir, name) -> name.endsWith(".txt"));
+
+            if ((spilled != null) && (spilled.length > capacity)) {
+                Arrays.sort(spilled, Comparator.comparingLong(File::lastModified));
+
+                for (int i = 0; i < spilled.length - capacity; i++) {
+                    final String name = spilled[i].getName();
+
+                    Files.deleteIfExists(spilled[i].toPath());
+                    Files.deleteIfExists(new File(meta_dir, name.substring(0, name.length() - 4) + ".tsv").toPath());
+                }
+            }
+        }
+        catch (IOException e) {
+            LOG.warn("could not spill slow document " + entry.hash, e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Runs the passes of TextRank as a pipeline of stages, each on its
+ * own pool of workers with a bounded queue in front of it:
+ *
+ * <ul>
+ * <li>tagging: PASS 1, OpenNLP sentence splitting, tokenizing and
+ * tagging</li>
+ * <li>ranking: PASS 2, plus PASS 4 and PASS 5 after enrichment</li>
+ * <li>enrichment: PASS 3, WordNet lookups and graph augmentation</li>
+ * </ul>
+ *
+ * so that one document gets tagged while another is being ranked or
+ * looked up, and each stage can be sized for its own CPU and memory
+ * profile. Configuration (language, solver, etc.) comes from the
+ * given TextRank instance.
+ *
+ * A full queue at the tagging stage rejects the document. A full
+ * queue further down runs the stage on the worker handing off to it,
+ * which slows the earlier stage down rather than dropping work.
+ *
+ * Each document gets the timeout of the TextRank instance as its
+ * deadline, counting from when the tagging stage picks it up, as in
+ * TextRank.runAsync(). Past the deadline, or once the future gets
+ * cancelled, the stage running the document gets interrupted and the
+ * later stages skip it.
+ */
+
+public class StagedTextRank {
+
+    /**
+     * Protected members.
+     */
+
+    protected final TextRank text_rank;
+    protected final ThreadPoolExecutor tagging;
+    protected final ThreadPoolExecutor ranking;
+    protected final ThreadPoolExecutor enrichment;
+
+
+    /**
+     * Constructor.
+     *
+     * @param queue_capacity bound on the documents queued in front
+     * of each stage
+     */
+
+    public StagedTextRank(final TextRank text_rank, final int tagging_workers, final int ranking_workers, final int enrichment_workers, final int queue_capacity) {
+        this.text_rank = text_rank;
+        this.tagging = buildPool(tagging_workers, queue_capacity, new ThreadPoolExecutor.AbortPolicy());
+        this.ranking = buildPool(ranking_workers, queue_capacity, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.enrichment = buildPool(enrichment_workers, queue_capacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+
+    /**
+     * Run the TextRank algorithm on the given text through the
+     * stages, without blocking.
+     */
+
+    public CompletableFuture<TextRankRun> runAsync(final String text) {
+        final StagedRun staged = new StagedRun(text_rank.buildRun(text), text_rank.getTimeoutMillis());
+        final CompletableFuture<Void> first;
+
+        try {
+            first = CompletableFuture.runAsync(staged.stage(r -> {
+                staged.armDeadline();
+                r.constructGraph();
+            }), tagging);
+        } catch (RejectedExecutionException e) {
+            text_rank.getMetrics().recordFailure();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        first
+            .thenRunAsync(staged.stage(TextRankRun::rankKeywords), ranking)
+            .thenRunAsync(staged.stage(TextRankRun::augmentGraph), enrichment)
+            .thenRunAsync(staged.stage(r -> {
+                r.rankNGrams();
+                r.normalizeRanks();
+            }), ranking)
+            .whenComplete((v, error) -> staged.finish(error));
+
+        return staged.result;
+    }
+
+
+    /**
+     * Stop taking on documents, letting the queued ones finish.
+     */
+
+    public void shutdown() {
+        tagging.shutdown();
+        ranking.shutdown();
+        enrichment.shutdown();
+    }
+
+
+    /**
+     * Build a fixed pool for one stage.
+     */
+
+    protected static ThreadPoolExecutor buildPool(final int workers, final int queue_capacity, final RejectedExecutionHandler policy) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queue_capacity), policy);
+    }
+
+
+    /**
+     * One pass (or passes) of a run, as done by a stage.
+     */
+
+    protected interface Pass {
+        void apply(TextRankRun run) throws Exception;
+    }
+
+
+    /**
+     * A run going through the stages, with the deadline and the
+     * thread of the stage it is in, so either a timeout or a cancel
+     * can interrupt that stage.
+     */
+
+    protected class StagedRun {
+
+        final CompletableFuture<TextRankRun> result = new CompletableFuture<>();
+        private final TextRankRun run;
+        private final long deadline_millis;
+        private ScheduledFuture<?> deadline = null;
+        private Thread thread = null;
+        private boolean was_interrupted = false;
+        private boolean interrupted_here = false;
+
+        StagedRun(final TextRankRun run, final long deadline_millis) {
+            this.run = run;
+            this.deadline_millis = deadline_millis;
+
+            result.whenComplete((done, error) -> {
+                if (result.isCancelled()) {
+                    interrupt();
+                }
+            });
+        }
+
+        /**
+         * Wrap a pass over the run as a task, with checked exceptions
+         * passed on through the future. The task skips the run once
+         * its result is settled.
+         */
+
+        Runnable stage(final Pass pass) {
+            return () -> {
+                enter();
+
+                try {
+                    pass.apply(run);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    exit();
+                }
+            };
+        }
+
+        synchronized void armDeadline() {
+            if (!result.isDone()) {
+                deadline = text_rank.schedule(() -> {
+                    if (result.completeExceptionally(new TimeoutException("no result within " + deadline_millis + " ms"))) {
+                        interrupt();
+                        text_rank.recordTimeout(run);
+                    }
+                }, deadline_millis);
+            }
+        }
+
+        synchronized void enter() {
+            if (result.isDone()) {
+                throw new CancellationException();
+            }
+
+            thread = Thread.currentThread();
+            was_interrupted = thread.isInterrupted();
+            interrupted_here = false;
+        }
+
+        synchronized void exit() {
+            thread = null;
+
+            // an interrupt meant for this run must not reach the next
+            // document on this worker; but with CallerRunsPolicy the
+            // stage may have run on the submitting thread, so keep
+            // any interrupt that came from elsewhere
+            if (interrupted_here && !was_interrupted) {
+                Thread.interrupted();
+            }
+
+            interrupted_here = false;
+        }
+
+        synchronized void interrupt() {
+            if (thread != null) {
+                interrupted_here = true;
+                thread.interrupt();
+            }
+        }
+
+        void finish(final Throwable error) {
+            synchronized (this) {
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+            }
+
+            if (error == null) {
+                if (result.complete(run)) {
+                    text_rank.recordRun(run);
+                }
+            } else {
+                final Throwable cause = ((error instanceof CompletionException) && (error.getCause() != null)) ? error.getCause() : error;
+
+                if (result.completeExceptionally(cause)) {
+                    text_rank.getMetrics().recordFailure();
+                }
+            }
+        }
+    }
+}
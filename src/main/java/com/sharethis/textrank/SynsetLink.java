@@ -33,16 +33,18 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.sharethis.textrank;
 
 
-import net.sf.extjwnl.data.*;
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.data.Synset;
+import net.sf.extjwnl.dictionary.Dictionary;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.List;
-
 
 /**
  * Implements a node value in a TextRank graph denoting a synset in
- * WordNet.
+ * WordNet, by its offset, along with the lemma whose neighborhood
+ * first linked it.
  *
  * @author paco@sharethis.com
  * @author flo@leibert.de
@@ -62,7 +64,9 @@ public class
 
     public enum MyRelation { SYNONYM, HYPERNYM, SIBLING }
 
-    public Synset synset = null;
+    public long synset = 0L;
+    public POS pos = null;
+    public String lemma = null;
     public Node parent = null;
     public int hops = 0;
     public MyRelation relation = null;
@@ -72,9 +76,33 @@ public class
      * Constructor.
      */
 
+    public SynsetLink (final String text, final long synset, final Node parent, final MyRelation relation, final int hops) {
+		this(text, synset, null, null, parent, relation, hops);
+    }
+
+
+    /**
+     * Constructor, for callers from before synsets were linked by
+     * offset.
+     *
+     * @deprecated pass the offset, part of speech and lemma instead
+     */
+
+    @Deprecated
     public SynsetLink (final String text, final Synset synset, final Node parent, final MyRelation relation, final int hops) {
+		this(text, synset.getOffset(), synset.getPOS(), firstLemma(synset), parent, relation, hops);
+    }
+
+
+    /**
+     * Constructor.
+     */
+
+    public SynsetLink (final String text, final long synset, final POS pos, final String lemma, final Node parent, final MyRelation relation, final int hops) {
 		this.text = text;
 		this.synset = synset;
+		this.pos = pos;
+		this.lemma = lemma;
 		this.parent = parent;
 		this.relation = relation;
 		this.hops = hops;
@@ -82,59 +110,101 @@ public class
 
 
     /**
-     * Create a description text for this value.
+     * Load the synset this links to, from the default dictionary.
+     *
+     * @deprecated the synset field holds the offset now, rather than
+     * the Synset, which this loads back for callers from before
+     * @return the synset, or null if the part of speech is unknown
      */
 
+    @Deprecated
+    public Synset getSynset () throws JWNLException {
+		return (pos == null) ? null : Dictionary.getDefaultResourceInstance().getSynsetAt(pos, synset);
+    }
+
+
+    protected static String firstLemma (final Synset synset) {
+		return synset.getWords().isEmpty() ? null : synset.getWords().get(0).getLemma();
+    }
+
+
+    /**
+     * Create a description text for this value.
+
     public String getDescription () {
-		return String.valueOf(relation) + '\t' + synset;
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append(relation).append('\t');
+
+		if (pos != null) {
+			sb.append(pos.getLabel()).append(' ');
+		}
+
+		sb.append(synset);
+
+		if (lemma != null) {
+			sb.append(" (").append(relation == MyRelation.SYNONYM ? "" : "via ").append(lemma).append(')');
+		}
+
+		return sb.toString();
     }
 
 
-    public static void addKeyWord (final Graph subgraph, final Node n, final String text, final POS pos, final WordNet wordNet) throws Exception
+    /**
+     * Link the given node to its senses in WordNet, along with their
+     * hypernyms and siblings.
+     *
+     * @return true if WordNet has a lemma for the text
+     */
+
+    public static boolean addKeyWord (final Graph subgraph, final Node n, final String text, final POS pos, final WordNet wordNet) throws Exception
     {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
 
 		//We get issues if the text is very long, so let's cap it
 		int maxLength = Math.min(MAX_KEYWORD_LENGTH, text.length());
 
-		final IndexWord iw = wordNet.getLemma(pos, text.substring(0, maxLength));
+		final Neighborhood hood = wordNet.getNeighborhood(pos, text.substring(0, maxLength));
 
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("n: " + n.key + " " + n.rank + " " + n.marked + " " + text);
-			LOG.debug(iw);
+			LOG.debug(hood);
 		}
 
-		if (iw != null) {
-			for (Synset synset : iw.getSenses()) {
+		if (hood != null) {
+			for (int i = 0; i < hood.synsets.length; i++) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+
+				final long synset = hood.synsets[i];
+
 				if (LOG.isDebugEnabled()) {
 					LOG.debug("synset: " + synset);
 				}
 
-				final Node node_synset = testLink(subgraph, synset, n, MyRelation.SYNONYM, 1);
+				final Node node_synset = testLink(subgraph, synset, hood, n, MyRelation.SYNONYM, 1);
 
 				if (node_synset != null) {
-					final List<Pointer> hypernyms = synset.getPointers(PointerType.HYPERNYM);
-
-					for (Pointer hypernym : hypernyms) {
-						final Synset hypernym_synset = hypernym.getTargetSynset();
+					for (int j = 0; j < hood.hypernyms[i].length; j++) {
+						final long hypernym_synset = hood.hypernyms[i][j];
 
 						if (LOG.isDebugEnabled()) {
 							LOG.debug("hypernym: " + hypernym_synset);
 						}
 
-						final Node node_hypernym = testLink(subgraph, hypernym_synset, node_synset, MyRelation.HYPERNYM, 2);
+						final Node node_hypernym = testLink(subgraph, hypernym_synset, hood, node_synset, MyRelation.HYPERNYM, 2);
 
 						if (node_hypernym != null) {
-							final List<Pointer> siblings = hypernym_synset.getPointers(PointerType.HYPONYM);
-
-							for (Pointer sibling : siblings) {
-							final Synset sibling_synset = sibling.getTargetSynset();
-
-							if (sibling_synset.getOffset() != synset.getOffset()) {
+							for (long sibling_synset : hood.siblings[i][j]) {
+							if (sibling_synset != synset) {
 								if (LOG.isDebugEnabled()) {
 								LOG.debug("sibling: " + sibling_synset);
 								}
 
-								final Node node_sibling = testLink(subgraph, sibling_synset, node_hypernym, MyRelation.SIBLING, 3);
+								final Node node_sibling = testLink(subgraph, sibling_synset, hood, node_hypernym, MyRelation.SIBLING, 3);
 							}
 							}
 						}
@@ -142,16 +212,36 @@ public class
 				}
 			}
 		}
+
+		return hood != null;
     }
 
 
+    /**
+     * Link a synset to the given parent node, for callers from before
+     * synsets were linked by offset.
+     *
+     * @deprecated use the overload taking the offset and Neighborhood
+     */
+
+    @Deprecated
     public static Node testLink (final Graph synset_subgraph, final Synset synset, final Node parent, final MyRelation relation, final int hops) throws Exception {
-		final String synset_key = Long.toString(synset.getOffset());
+		return testLink(synset_subgraph, synset.getOffset(), synset.getPOS(), firstLemma(synset), parent, relation, hops);
+    }
+
+
+    public static Node testLink (final Graph synset_subgraph, final long synset, final Neighborhood hood, final Node parent, final MyRelation relation, final int hops) throws Exception {
+		return testLink(synset_subgraph, synset, hood.pos, hood.lemma, parent, relation, hops);
+    }
+
+
+    protected static Node testLink (final Graph synset_subgraph, final long synset, final POS pos, final String lemma, final Node parent, final MyRelation relation, final int hops) throws Exception {
+		final String synset_key = Long.toString(synset);
 
 		Node node = synset_subgraph.get(synset_key);
 
 		if (node == null) {
-			final SynsetLink synset_link = new SynsetLink(synset_key, synset, parent, relation, hops);
+			final SynsetLink synset_link = new SynsetLink(synset_key, synset, pos, lemma, parent, relation, hops);
 
 			node = Node.buildNode(synset_subgraph, synset_key, synset_link);
 			node.connect(parent);
@@ -201,7 +291,7 @@ public class
 			final SynsetLink synset_link = (SynsetLink) node.value;
 
 			if (LOG.isDebugEnabled()) {
-				LOG.debug("recur marking: " + synset_link.synset);
+				LOG.debug("recur marking: " + synset_link.getDescription());
 			}
 
 			markAncestors(synset_link.parent);
@@ -32,12 +32,38 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.sharethis.textrank;
 
+import com.sharethis.common.Digests;
 import com.sharethis.common.IOUtils;
+import com.sharethis.common.LruCache;
+import com.sharethis.common.StripedLruCache;
 
 import java.io.File;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 /**
  * Java implementation of the TextRank algorithm by Rada Mihalcea, et al.
@@ -48,24 +74,129 @@ import java.util.concurrent.TimeUnit;
 
 public class TextRank {
 
+    private final static Log LOG = LogFactory.getLog(TextRank.class.getName());
+
     protected LanguageModel lang = null;
     protected WordNet wordNet = null;
 
-    private ExecutorService ex = Executors.newSingleThreadExecutor();
+    private ThreadPoolExecutor ex;
+    private ScheduledThreadPoolExecutor timer;
     private static long DEFAULT_TIMEOUT_MILLIS = 10000;
+    private static int DEFAULT_WORKERS = 1;
+    private static int DEFAULT_QUEUE_CAPACITY = 1024;
     private long timeoutMillis;
+    private RankSolver solver = new JacobiSolver();
+    private int topK = 0;
+    private int stableSweeps = 0;
+    private boolean warmStart = false;
+    private int cooccurrenceWindow = 0;
+    private final TextRankMetrics metrics = new TextRankMetrics();
+    private ObjectName metricsName = null;
+    private volatile SlowDocumentLog slowDocuments = null;
+    private volatile LruCache<String, List<Keyphrase>> resultCache = null;
+    private volatile KeyphraseStore resultStore = null;
 
     public TextRank(final String lang_code) throws Exception{
         this(lang_code, DEFAULT_TIMEOUT_MILLIS);
     }
 
+    public TextRank(final String lang_code, final WordNet wordNet) throws Exception {
+        this(lang_code, DEFAULT_TIMEOUT_MILLIS, DEFAULT_WORKERS, DEFAULT_QUEUE_CAPACITY, wordNet);
+    }
+
     public TextRank(final String lang_code, final long timeoutMillis) throws Exception {
+        this(lang_code, timeoutMillis, DEFAULT_WORKERS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Run documents on a fixed pool of workers, with at most
+     * queueCapacity more waiting for a worker. Once the queue is full,
+     * run() throws a RejectedExecutionException, unless another
+     * policy gets set through setRejectionPolicy().
+     */
+    public TextRank(final String lang_code, final long timeoutMillis, final int workers, final int queueCapacity) throws Exception {
+        this(lang_code, timeoutMillis, workers, queueCapacity, "en".equals(lang_code) ? new WordNet() : null);
+    }
+
+    /**
+     * Link synsets through the given WordNet, e.g., one backed by a
+     * NeighborhoodIndex; null turns synset links off. WordNet is
+     * English, so other languages must pass null.
+     */
+    public TextRank(final String lang_code, final long timeoutMillis, final int workers, final int queueCapacity, final WordNet wordNet) throws Exception {
+        if ((wordNet != null) && !"en".equals(lang_code)) {
+            throw new IllegalArgumentException("WordNet links only English text, not: " + lang_code);
+        }
         lang = LanguageModel.buildLanguage(lang_code);
-        boolean use_wordnet = ("en".equals(lang_code));
-        if (use_wordnet) {
-            wordNet = new WordNet();
+        metrics.setNodeKeyCache(lang.getNodeKeyCache());
+        if (wordNet != null) {
+            this.wordNet = wordNet;
+            metrics.setWordNetCache(wordNet.getCache());
         }
         this.timeoutMillis = timeoutMillis;
+
+        ex = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // a single timer thread enforces the deadlines of all the
+        // asynchronous runs, rather than a blocked thread per document
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread t = new Thread(r, "textrank-deadlines");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Choose what happens to a document submitted while all of the
+     * workers are busy and the queue is full, e.g., a
+     * ThreadPoolExecutor.CallerRunsPolicy to push back on the caller.
+     */
+    public void setRejectionPolicy(final RejectedExecutionHandler policy) {
+        ex.setRejectedExecutionHandler(policy);
+    }
+
+    /**
+     * Choose the solver used to iterate ranks, e.g., a JacobiSolver
+     * with its own fork/join pool, or a GaussSeidelSolver.
+     */
+    public void setSolver(final RankSolver solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Stop rank iterations once the topK highest-ranked nodes have kept
+     * their membership and order for stableSweeps consecutive sweeps,
+     * even if the global error has not converged. A topK of zero (the
+     * default) disables this.
+     */
+    public void setTopKStability(final int topK, final int stableSweeps) {
+        if ((topK < 0) || ((topK > 0) && (stableSweeps < 1))) {
+            throw new IllegalArgumentException("topK must not be negative, and stableSweeps must be positive when topK is: " + topK + ", " + stableSweeps);
+        }
+        this.topK = topK;
+        this.stableSweeps = stableSweeps;
+    }
+
+    /**
+     * Seed the re-ranking of the augmented graph (PASS 4) from the
+     * converged keyword ranks, iterating locally around the nodes
+     * attached or relinked since (n-grams, synsets, and the keywords
+     * they link to) before falling back to global sweeps.
+     */
+    public void setWarmStart(final boolean warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    /**
+     * Link keywords which co-occur within a sliding window of the
+     * given size, weighting edges by how often each pair occurs.
+     * Defaults to 0, which links only adjacent keywords, unweighted.
+     */
+    public void setCooccurrenceWindow(final int cooccurrenceWindow) {
+        this.cooccurrenceWindow = cooccurrenceWindow;
     }
 
     /**
@@ -74,8 +205,23 @@ public class TextRank {
      * build a graph of weighted key phrases.
      */
     public TextRankRun run(final String text) throws Exception {
-        return ex.submit(new TextRankRun(lang, wordNet, text))
-              .get(timeoutMillis, TimeUnit.MILLISECONDS);
+        final TextRankRun pending = buildRun(text);
+        final Future<TextRankRun> future = ex.submit(pending);
+
+        try {
+            final TextRankRun run = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            recordRun(run);
+            return run;
+        } catch (TimeoutException | InterruptedException e) {
+            // interrupt the worker, which checks between sentences,
+            // rank sweeps and WordNet lookups, so it frees up quickly
+            future.cancel(true);
+            recordTimeout(pending);
+            throw e;
+        } catch (ExecutionException e) {
+            metrics.recordFailure();
+            throw e;
+        }
     }
 
     public TextRankRun run(final File textFile) throws Exception {
@@ -83,8 +229,529 @@ public class TextRank {
         return run(text);
     }
 
+    /**
+     * Run the TextRank algorithm on the given text without blocking,
+     * using the configured timeout as the deadline for the document.
+     */
+    public CompletableFuture<TextRankRun> runAsync(final String text) {
+        return runAsync(text, timeoutMillis);
+    }
+
+    /**
+     * Run the TextRank algorithm on the given text without blocking.
+     * The deadline counts from when a worker picks up the document,
+     * so time spent queued behind a batch does not count against it.
+     * Past the deadline, the future completes with a TimeoutException
+     * and the worker gets interrupted; cancelling the future also
+     * interrupts the worker. A document rejected by a full queue
+     * completes with a RejectedExecutionException.
+     */
+    public CompletableFuture<TextRankRun> runAsync(final String text, final long deadlineMillis) {
+        final DeadlineTask task = new DeadlineTask(buildRun(text), deadlineMillis, false);
+
+        try {
+            ex.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.result.completeExceptionally(e);
+        }
+
+        return task.result;
+    }
+
+    /**
+     * Run the TextRank algorithm on a batch of texts, each with the
+     * configured timeout as its own deadline. The future completes
+     * with the runs in the order of the texts, or exceptionally with
+     * the first failure, which cancels the rest of the batch; use
+     * runAsync() per document to handle the failures individually.
+     *
+     * The batch gets submitted as a whole: with the default abort
+     * policy, a batch larger than the room left in the queue fails
+     * up front, without running any of it. Rather than a timer entry
+     * per document, one sweep checks the deadlines of the batch, so a
+     * document may run up to a tenth of the timeout past its deadline.
+     */
+    public CompletableFuture<List<TextRankRun>> runAll(final Collection<String> texts) {
+        final CompletableFuture<List<TextRankRun>> batch = new CompletableFuture<>();
+        final List<DeadlineTask> tasks = new ArrayList<>(texts.size());
+
+        if (texts.isEmpty()) {
+            batch.complete(new ArrayList<>());
+            return batch;
+        }
+
+        final int room = ex.getQueue().remainingCapacity() + Math.max(0, ex.getCorePoolSize() - ex.getPoolSize());
+
+        if ((ex.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy) && (texts.size() > room)) {
+            batch.completeExceptionally(new RejectedExecutionException("no room for a batch of " + texts.size() + " documents, only " + room));
+            return batch;
+        }
+
+        for (String text : texts) {
+            tasks.add(new DeadlineTask(buildRun(text), timeoutMillis, true));
+        }
+
+        final AtomicInteger remaining = new AtomicInteger(tasks.size());
+
+        for (DeadlineTask task : tasks) {
+            task.result.whenComplete((run, error) -> {
+                if (error != null) {
+                    batch.completeExceptionally(error);
+                } else if (remaining.decrementAndGet() == 0) {
+                    final List<TextRankRun> runs = new ArrayList<>(tasks.size());
+
+                    for (DeadlineTask done : tasks) {
+                        runs.add(done.result.join());
+                    }
+
+                    batch.complete(runs);
+                }
+            });
+        }
+
+        final long period = Math.max(1L, timeoutMillis / 10L);
+        final ScheduledFuture<?> sweep = timer.scheduleWithFixedDelay(() -> {
+            final long now = System.nanoTime();
+
+            for (DeadlineTask task : tasks) {
+                task.expireIfLate(now);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        // once the batch settles, by failure, cancel or success, stop
+        // the sweep and whatever is still queued or running
+
+        batch.whenComplete((runs, error) -> {
+            sweep.cancel(false);
+
+            for (DeadlineTask task : tasks) {
+                task.result.cancel(true);
+            }
+        });
+
+        for (DeadlineTask task : tasks) {
+            try {
+                ex.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.result.completeExceptionally(e);
+            }
+        }
+
+        return batch;
+    }
+
+    /**
+     * Run the TextRank algorithm over a stream of documents, keeping
+     * at most maxInFlight of them pending and requesting more from
+     * upstream only as the subscriber to the returned publisher asks
+     * for results.
+     */
+    public Flow.Publisher<TextRankRun> stream(final Flow.Publisher<String> documents, final int maxInFlight) {
+        final TextRankProcessor processor = new TextRankProcessor(this, maxInFlight);
+        documents.subscribe(processor);
+
+        return processor;
+    }
+
+    /**
+     * Metrics aggregated over the runs of this instance.
+     */
+    public TextRankMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Run the TextRank algorithm on the given text and return its key
+     * phrases, served from the result cache or the result store (if
+     * set) when the same content has been seen before.
+     */
+    public List<Keyphrase> extractKeyphrases(final String text) throws Exception {
+        if ((resultCache == null) && (resultStore == null)) {
+            return run(text).getKeyphrases();
+        }
+
+        final String key = contentHash(text);
+        List<Keyphrase> keyphrases = lookupResult(key);
+
+        if (keyphrases == null) {
+            keyphrases = Collections.unmodifiableList(run(text).getKeyphrases());
+            storeResult(key, keyphrases);
+        }
+
+        return keyphrases;
+    }
+
+    /**
+     * Asynchronous version of extractKeyphrases(), where a hit in the
+     * result cache or the result store completes right away.
+     */
+    public CompletableFuture<List<Keyphrase>> extractKeyphrasesAsync(final String text) {
+        if ((resultCache == null) && (resultStore == null)) {
+            return runAsync(text).thenApply(TextRankRun::getKeyphrases);
+        }
+
+        final String key = contentHash(text);
+        final List<Keyphrase> cached = lookupResult(key);
+
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return runAsync(text).thenApply(run -> {
+            final List<Keyphrase> keyphrases = Collections.unmodifiableList(run.getKeyphrases());
+            storeResult(key, keyphrases);
+            return keyphrases;
+        });
+    }
+
+    /**
+     * Look up the key phrases for a content hash in the result cache,
+     * then in the result store, copying a hit in the store into the
+     * cache. A store which fails to read counts as a miss.
+     */
+    private List<Keyphrase> lookupResult(final String key) {
+        final LruCache<String, List<Keyphrase>> cache = resultCache;
+        final KeyphraseStore store = resultStore;
+        List<Keyphrase> keyphrases = (cache == null) ? null : cache.get(key);
+
+        if ((keyphrases == null) && (store != null)) {
+            try {
+                keyphrases = store.get(key);
+            }
+            catch (IOException e) {
+                LOG.warn("could not read result store", e);
+            }
+
+            if ((keyphrases != null) && (cache != null)) {
+                cache.put(key, keyphrases);
+            }
+        }
+
+        return keyphrases;
+    }
+
+    private void storeResult(final String key, final List<Keyphrase> keyphrases) {
+        final LruCache<String, List<Keyphrase>> cache = resultCache;
+        final KeyphraseStore store = resultStore;
+
+        if (cache != null) {
+            cache.put(key, keyphrases);
+        }
+
+        if (store != null) {
+            try {
+                store.put(key, keyphrases);
+            }
+            catch (IOException e) {
+                LOG.warn("could not write result store", e);
+            }
+        }
+    }
+
+    /**
+     * Cache the key phrases of each document by a hash of its
+     * normalized content, for extractKeyphrases(); null turns this
+     * off. Since the cache does not know about the configuration,
+     * clear it after changing any setting which affects results.
+     */
+    public void setResultCache(final LruCache<String, List<Keyphrase>> resultCache) {
+        this.resultCache = resultCache;
+        metrics.setResultCache(resultCache);
+    }
+
+    public LruCache<String, List<Keyphrase>> getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Persist the key phrases of each document by a hash of its
+     * normalized content, behind the result cache, so they survive
+     * restarts; null turns this off. Like the cache, the store does
+     * not know about the configuration.
+     */
+    public void setResultStore(final KeyphraseStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    public KeyphraseStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * Reuse the tokens and tags of repeated sentences, such as
+     * boilerplate, from the given cache (see
+     * LanguageModel.buildSentenceCache()); null turns this off.
+     */
+    public void setSentenceCache(final StripedLruCache<String, String[][]> sentenceCache) {
+        lang.setSentenceCache(sentenceCache);
+        metrics.setSentenceCache(sentenceCache);
+    }
+
+    public StripedLruCache<String, String[][]> getSentenceCache() {
+        return lang.getSentenceCache();
+    }
+
+    /**
+     * Memoize node keys in the given cache, which the language model
+     * starts out with one of NODE_KEY_CACHE_ENTRIES; null turns this
+     * off.
+     */
+    public void setNodeKeyCache(final StripedLruCache<String, String> nodeKeyCache) {
+        lang.setNodeKeyCache(nodeKeyCache);
+        metrics.setNodeKeyCache(nodeKeyCache);
+    }
+
+    /**
+     * Cache WordNet neighborhoods in the given cache, which WordNet
+     * starts out with one of WordNet.CACHE_ENTRIES; null turns this
+     * off. No effect for languages without WordNet.
+     */
+    public void setWordNetCache(final StripedLruCache<String, Neighborhood> wordNetCache) {
+        if (wordNet != null) {
+            wordNet.setCache(wordNetCache);
+            metrics.setWordNetCache(wordNetCache);
+        }
+    }
+
+    /**
+     * Reject WordNet lookups which can not find a lemma with the given
+     * filter, e.g., LemmaFilter.load() of a file built offline; null
+     * turns this off. No effect for languages without WordNet.
+     */
+    public void setLemmaFilter(final LemmaFilter lemmaFilter) {
+        if (wordNet != null) {
+            wordNet.setLemmaFilter(lemmaFilter);
+        }
+    }
+
+    /**
+     * Build a result cache bounded by the number of documents.
+     *
+     * @param ttlMillis time-to-live of each entry, or 0 for none
+     */
+    public static LruCache<String, List<Keyphrase>> buildResultCache(final long maxEntries, final long ttlMillis) {
+        return LruCache.byEntries(maxEntries, ttlMillis);
+    }
+
+    /**
+     * Build a result cache bounded by an estimate of its size in
+     * bytes.
+     *
+     * @param ttlMillis time-to-live of each entry, or 0 for none
+     */
+    public static LruCache<String, List<Keyphrase>> buildResultCacheByBytes(final long maxBytes, final long ttlMillis) {
+        return LruCache.byWeight(maxBytes, ttlMillis, (key, keyphrases) -> {
+            // rough footprint: strings as UTF-16 plus object headers
+            long bytes = 64L + 2L * key.length();
+
+            for (Keyphrase keyphrase : keyphrases) {
+                bytes += 72L + 2L * keyphrase.getPhrase().length();
+            }
+
+            return bytes;
+        });
+    }
+
+    /**
+     * Normalize text before hashing, so that documents which differ
+     * only in Unicode composition or runs of whitespace share a key.
+     */
+    public static String normalizeText(final String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Hash of the normalized content, as the key of the result cache.
+     */
+    public static String contentHash(final String text) {
+        return Digests.md5Hex(normalizeText(text));
+    }
+
+    /**
+     * Capture the documents which run slower than the threshold of
+     * the given log, or miss their deadline; null turns this off.
+     * Shutdown closes the log, writing out its pending spills.
+     */
+    public void setSlowDocumentLog(final SlowDocumentLog slowDocuments) {
+        this.slowDocuments = slowDocuments;
+    }
+
+    public SlowDocumentLog getSlowDocumentLog() {
+        return slowDocuments;
+    }
+
+    /**
+     * Account for a completed run.
+     */
+    void recordRun(final TextRankRun run) {
+        metrics.record(run.getMetrics());
+
+        final SlowDocumentLog log = slowDocuments;
+
+        if (log != null) {
+            log.offer(run.text, run.getMetrics());
+        }
+    }
+
+    /**
+     * Account for a run which missed its deadline.
+     */
+    void recordTimeout(final TextRankRun run) {
+        metrics.recordTimeout();
+
+        final SlowDocumentLog log = slowDocuments;
+
+        if (log != null) {
+            log.offerTimeout(run.text, run.getMetrics());
+        }
+    }
+
+    /**
+     * Expose the aggregated metrics through JMX, under
+     * com.sharethis.textrank:type=TextRank,name=&lt;name&gt;
+     * until shutdown.
+     */
+    public ObjectName registerMetrics(final String name) throws Exception {
+        final ObjectName objectName = new ObjectName("com.sharethis.textrank:type=TextRank,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+        metricsName = objectName;
+
+        return objectName;
+    }
+
     public void shutdown() {
         ex.shutdown();
+        timer.shutdown();
+
+        final SlowDocumentLog log = slowDocuments;
+
+        if (log != null) {
+            try {
+                log.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (metricsName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+            } catch (Exception e) {
+                // already gone
+            }
+            metricsName = null;
+        }
+    }
+
+    /**
+     * @return the deadline of each document, in milliseconds
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Schedule a deadline on the timer shared by the runs.
+     */
+    ScheduledFuture<?> schedule(final Runnable task, final long delayMillis) {
+        return timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prepare a run of the given text with the current configuration.
+     */
+    protected TextRankRun buildRun(final String text) {
+        final TextRankRun run = new TextRankRun(lang, wordNet, text);
+        run.setSolver(solver);
+        run.setTopKStability(topK, stableSweeps);
+        run.setWarmStart(warmStart);
+        run.setCooccurrenceWindow(cooccurrenceWindow);
+
+        return run;
+    }
+
+    /**
+     * A run which arms its deadline once a worker starts it, and
+     * reports its outcome through a CompletableFuture. A swept task
+     * arms no timer of its own; the sweep of its batch calls
+     * expireIfLate() instead.
+     */
+    private class DeadlineTask extends FutureTask<TextRankRun> {
+
+        final CompletableFuture<TextRankRun> result = new CompletableFuture<>();
+        private final TextRankRun run;
+        private final long deadlineMillis;
+        private final boolean swept;
+        private volatile ScheduledFuture<?> deadline = null;
+        private volatile long startNanos = 0L;
+
+        DeadlineTask(final TextRankRun run, final long deadlineMillis, final boolean swept) {
+            super(run);
+            this.run = run;
+            this.deadlineMillis = deadlineMillis;
+            this.swept = swept;
+
+            result.whenComplete((run_result, error) -> {
+                if (result.isCancelled()) {
+                    cancel(true);
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            if (!isDone()) {
+                startNanos = System.nanoTime();
+
+                if (!swept) {
+                    deadline = timer.schedule(this::expire, deadlineMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+
+            super.run();
+        }
+
+        void expireIfLate(final long nowNanos) {
+            final long started = startNanos;
+
+            if ((started != 0L) && !isDone() && (nowNanos - started >= deadlineMillis * 1000000L)) {
+                expire();
+            }
+        }
+
+        private void expire() {
+            if (result.completeExceptionally(new TimeoutException("no result within " + deadlineMillis + " ms"))) {
+                cancel(true);
+                recordTimeout(run);
+            }
+        }
+
+        @Override
+        protected void done() {
+            final ScheduledFuture<?> armed = deadline;
+
+            if (armed != null) {
+                armed.cancel(false);
+            }
+
+            if (isCancelled()) {
+                result.cancel(false);
+                return;
+            }
+
+            try {
+                final TextRankRun run = get();
+
+                if (result.complete(run)) {
+                    recordRun(run);
+                }
+            } catch (ExecutionException e) {
+                metrics.recordFailure();
+                result.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+            }
+        }
     }
 
 }
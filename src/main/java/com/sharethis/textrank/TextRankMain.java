@@ -30,6 +30,7 @@ public class TextRankMain {
         final String log4j_conf = args[0];
         final String lang_code = args[1];
         final String data_file = args[2];
+        final String index_file = (args.length > 3) ? args[3] : null;
 
         // set up logging for debugging and instrumentation
         PropertyConfigurator.configure(log4j_conf);
@@ -44,11 +45,23 @@ public class TextRankMain {
         }
 
         // main entry point for the algorithm
-        final TextRank tr = new TextRank(lang_code);
+        final TextRank tr;
+        if ((index_file != null) && "en".equals(lang_code)) {
+            // synset links from a prebuilt NeighborhoodIndex, rather
+            // than loading the WordNet dictionary
+            tr = new TextRank(lang_code, new WordNet(NeighborhoodIndex.open(new File(index_file))));
+        }
+        else {
+            if (index_file != null) {
+                LOG.warn("ignoring the WordNet index, which only links English text: " + index_file);
+            }
+            tr = new TextRank(lang_code);
+        }
         for (File textFile : texts) {
             final TextRankRun run = tr.run(textFile);
             LOG.info("\n\n=======:: "+textFile.getAbsolutePath());
             LOG.info("\n" + run);
+            LOG.info("METRICS:\t" + run.getMetrics());
         }
         tr.shutdown();
     }
@@ -0,0 +1,296 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sharethis.common.CacheStats;
+import com.sharethis.common.Histogram;
+import com.sharethis.common.LruCache;
+import com.sharethis.common.StripedLruCache;
+
+
+/**
+ * Metrics aggregated over the runs of a TextRank instance, as
+ * histograms of the time of each pass, the total time, graph sizes
+ * and rank iterations, along with running counts.
+ */
+
+public class TextRankMetrics implements TextRankMetricsMXBean {
+
+    /**
+     * Public definitions.
+     */
+
+    public final static double NANOS_PER_MILLI = 1.0e6D;
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final ConcurrentMap<String, Histogram> pass_nanos = new ConcurrentHashMap<>();
+    protected final Histogram total_nanos = new Histogram();
+    protected final Histogram graph_nodes = new Histogram();
+    protected final Histogram rank_iterations = new Histogram();
+
+    protected final LongAdder documents = new LongAdder();
+    protected final LongAdder failures = new LongAdder();
+    protected final LongAdder timeouts = new LongAdder();
+    protected final LongAdder sentences = new LongAdder();
+    protected final LongAdder tokens = new LongAdder();
+    protected final LongAdder wordnet_lookups = new LongAdder();
+
+    protected volatile LruCache<?, ?> result_cache = null;
+    protected volatile StripedLruCache<?, ?> sentence_cache = null;
+    protected volatile StripedLruCache<?, ?> node_key_cache = null;
+    protected volatile StripedLruCache<?, ?> wordnet_cache = null;
+
+
+    /**
+     * Report on the given result cache (or none, if null).
+     */
+
+    public void setResultCache(final LruCache<?, ?> result_cache) {
+        this.result_cache = result_cache;
+    }
+
+
+    /**
+     * Report on the given sentence cache (or none, if null).
+     */
+
+    public void setSentenceCache(final StripedLruCache<?, ?> sentence_cache) {
+        this.sentence_cache = sentence_cache;
+    }
+
+
+    /**
+     * Report on the given node key cache (or none, if null).
+     */
+
+    public void setNodeKeyCache(final StripedLruCache<?, ?> node_key_cache) {
+        this.node_key_cache = node_key_cache;
+    }
+
+
+    /**
+     * Report on the given WordNet cache (or none, if null).
+     */
+
+    public void setWordNetCache(final StripedLruCache<?, ?> wordnet_cache) {
+        this.wordnet_cache = wordnet_cache;
+    }
+
+
+    /**
+     * Add the metrics of a completed run.
+     */
+
+    public void record(final RunMetrics metrics) {
+        for (Map.Entry<String, Long> entry : metrics.pass_nanos.entrySet()) {
+            getPassHistogram(entry.getKey()).record(entry.getValue());
+        }
+
+        total_nanos.record(metrics.getTotalNanos());
+        graph_nodes.record(metrics.graph_nodes);
+        rank_iterations.record(metrics.keyword_iterations + metrics.ngram_iterations);
+
+        documents.increment();
+        sentences.add(metrics.sentences);
+        tokens.add(metrics.tokens);
+        wordnet_lookups.add(metrics.wordnet_lookups);
+    }
+
+
+    /**
+     * Count a run which failed.
+     */
+
+    public void recordFailure() {
+        failures.increment();
+    }
+
+
+    /**
+     * Count a run which missed its deadline.
+     */
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+
+    /**
+     * @return the histogram of times for the given pass, in
+     * nanoseconds, by its markTime label
+     */
+
+    public Histogram getPassHistogram(final String pass) {
+        Histogram histogram = pass_nanos.get(pass);
+
+        if (histogram == null) {
+            final Histogram created = new Histogram();
+            histogram = pass_nanos.putIfAbsent(pass, created);
+
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+
+        return histogram;
+    }
+
+
+    /**
+     * @return the histogram of total times, in nanoseconds
+     */
+
+    public Histogram getTotalHistogram() {
+        return total_nanos;
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // MXBean attributes
+    //////////////////////////////////////////////////////////////////////
+
+    public long getDocuments() {
+        return documents.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public Map<String, Double> getMeanPassMillis() {
+        final Map<String, Double> result = new TreeMap<>();
+
+        for (Map.Entry<String, Histogram> entry : pass_nanos.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getMean() / NANOS_PER_MILLI);
+        }
+
+        return result;
+    }
+
+    public Map<String, Double> getP99PassMillis() {
+        final Map<String, Double> result = new TreeMap<>();
+
+        for (Map.Entry<String, Histogram> entry : pass_nanos.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getPercentile(0.99D) / NANOS_PER_MILLI);
+        }
+
+        return result;
+    }
+
+    public double getMeanTotalMillis() {
+        return total_nanos.getMean() / NANOS_PER_MILLI;
+    }
+
+    public double getP99TotalMillis() {
+        return total_nanos.getPercentile(0.99D) / NANOS_PER_MILLI;
+    }
+
+    public double getMaxTotalMillis() {
+        return total_nanos.getMax() / NANOS_PER_MILLI;
+    }
+
+    public long getSentences() {
+        return sentences.sum();
+    }
+
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    public long getWordNetLookups() {
+        return wordnet_lookups.sum();
+    }
+
+    public double getMeanGraphNodes() {
+        return graph_nodes.getMean();
+    }
+
+    public long getP99GraphNodes() {
+        return graph_nodes.getPercentile(0.99D);
+    }
+
+    public double getMeanRankIterations() {
+        return rank_iterations.getMean();
+    }
+
+    public CacheStats getResultCacheStats() {
+        final LruCache<?, ?> cache = result_cache;
+        return (cache != null) ? cache.getStats() : CacheStats.EMPTY;
+    }
+
+    public CacheStats getSentenceCacheStats() {
+        final StripedLruCache<?, ?> cache = sentence_cache;
+        return (cache != null) ? cache.getStats() : CacheStats.EMPTY;
+    }
+
+    public CacheStats getNodeKeyCacheStats() {
+        final StripedLruCache<?, ?> cache = node_key_cache;
+        return (cache != null) ? cache.getStats() : CacheStats.EMPTY;
+    }
+
+    public CacheStats getWordNetCacheStats() {
+        final StripedLruCache<?, ?> cache = wordnet_cache;
+        return (cache != null) ? cache.getStats() : CacheStats.EMPTY;
+    }
+
+    public void reset() {
+        for (Histogram histogram : pass_nanos.values()) {
+            histogram.reset();
+        }
+
+        total_nanos.reset();
+        graph_nodes.reset();
+        rank_iterations.reset();
+
+        documents.reset();
+        failures.reset();
+        timeouts.reset();
+        sentences.reset();
+        tokens.reset();
+        wordnet_lookups.reset();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.Map;
+
+import com.sharethis.common.CacheStats;
+
+
+/**
+ * JMX view of the metrics aggregated over the runs of a TextRank
+ * instance. Times are in milliseconds, derived from nanosecond
+ * timers. Each cache shows up as one composite attribute.
+ */
+
+public interface TextRankMetricsMXBean {
+
+    long getDocuments();
+
+    long getFailures();
+
+    long getTimeouts();
+
+    Map<String, Double> getMeanPassMillis();
+
+    Map<String, Double> getP99PassMillis();
+
+    double getMeanTotalMillis();
+
+    double getP99TotalMillis();
+
+    double getMaxTotalMillis();
+
+    long getSentences();
+
+    long getTokens();
+
+    long getWordNetLookups();
+
+    double getMeanGraphNodes();
+
+    long getP99GraphNodes();
+
+    double getMeanRankIterations();
+
+    CacheStats getResultCacheStats();
+
+    CacheStats getSentenceCacheStats();
+
+    CacheStats getNodeKeyCacheStats();
+
+    CacheStats getWordNetCacheStats();
+
+    void reset();
+}
@@ -0,0 +1,371 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Streaming stage which runs TextRank over documents published
+ * upstream, e.g., by a crawler, and publishes the completed runs to a
+ * single downstream subscriber.
+ *
+ * Demand drives everything: documents get requested from upstream
+ * only while fewer than <code>max_in_flight</code> are pending
+ * (requested, running, or completed but not yet delivered), and only
+ * as far as the downstream subscriber has asked for results, so
+ * nothing buffers without bound. Runs get delivered in order of
+ * completion, not of arrival.
+ *
+ * A document which fails or misses its deadline gets logged, counted
+ * and dropped, rather than terminating the stream. An error from
+ * upstream gets passed on once the documents in flight have been
+ * delivered; a cancel from downstream cancels them instead, and
+ * stops taking on documents. A second subscriber gets rejected with
+ * an IllegalStateException. Keep
+ * <code>max_in_flight</code> within the workers plus queue capacity
+ * of the TextRank instance, or documents get rejected.
+ */
+
+public class TextRankProcessor implements Flow.Processor<String, TextRankRun> {
+
+    // logging
+
+    private final static Log LOG =
+        LogFactory.getLog(TextRankProcessor.class.getName());
+
+
+    /**
+     * Protected members.
+     */
+
+    protected final TextRank text_rank;
+    protected final int max_in_flight;
+
+    protected Flow.Subscription upstream = null;
+    protected Flow.Subscriber<? super TextRankRun> downstream = null;
+    protected final ArrayDeque<TextRankRun> ready = new ArrayDeque<>();
+    protected final Set<CompletableFuture<TextRankRun>> running = new HashSet<>();
+    protected long demand = 0L;
+    protected int requested = 0;
+    protected int active = 0;
+    protected long failures = 0L;
+    protected boolean upstream_done = false;
+    protected Throwable upstream_error = null;
+    protected Throwable downstream_error = null;
+    protected boolean terminated = false;
+    protected boolean draining = false;
+
+
+    /**
+     * Constructor.
+     *
+     * @param max_in_flight bound on the documents pending at any time
+     */
+
+    public TextRankProcessor(final TextRank text_rank, final int max_in_flight) {
+        if (max_in_flight < 1) {
+            throw new IllegalArgumentException("max_in_flight must be at least 1");
+        }
+
+        this.text_rank = text_rank;
+        this.max_in_flight = max_in_flight;
+    }
+
+
+    /**
+     * @return the number of documents which failed or missed their
+     * deadline so far
+     */
+
+    public synchronized long getFailureCount() {
+        return failures;
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // upstream
+    //////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        synchronized (this) {
+            if (upstream != null || terminated) {
+                subscription.cancel();
+                return;
+            }
+
+            upstream = subscription;
+        }
+
+        drain();
+    }
+
+
+    @Override
+    public void onNext(final String text) {
+        synchronized (this) {
+            requested--;
+
+            // a cancel may cross documents already sent from upstream
+            if (terminated) {
+                return;
+            }
+
+            active++;
+        }
+
+        final CompletableFuture<TextRankRun> future = text_rank.runAsync(text);
+
+        synchronized (this) {
+            if (terminated) {
+                future.cancel(true);
+            }
+            else {
+                running.add(future);
+            }
+        }
+
+        future.whenComplete((run, error) -> {
+            synchronized (this) {
+                running.remove(future);
+
+                if (terminated) {
+                    active--;
+                }
+                else if (error == null) {
+                    ready.add(run);
+                }
+                else {
+                    failures++;
+                    active--;
+                    LOG.warn("dropped document: " + error);
+                }
+            }
+
+            drain();
+        });
+    }
+
+
+    @Override
+    public void onError(final Throwable error) {
+        synchronized (this) {
+            upstream_done = true;
+            upstream_error = error;
+        }
+
+        drain();
+    }
+
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            upstream_done = true;
+        }
+
+        drain();
+    }
+
+
+    //////////////////////////////////////////////////////////////////////
+    // downstream
+    //////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super TextRankRun> subscriber) {
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    public void request(final long n) {
+                    }
+
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("already subscribed; only one subscriber is supported"));
+                return;
+            }
+
+            downstream = subscriber;
+        }
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            public void request(final long n) {
+                synchronized (TextRankProcessor.this) {
+                    if (n <= 0L) {
+                        downstream_error = new IllegalArgumentException("non-positive request: " + n);
+                    }
+                    else {
+                        demand = (demand + n < 0L) ? Long.MAX_VALUE : demand + n;
+                    }
+                }
+
+                drain();
+            }
+
+            public void cancel() {
+                final Flow.Subscription subscription;
+                final List<CompletableFuture<TextRankRun>> cancelled;
+
+                synchronized (TextRankProcessor.this) {
+                    terminated = true;
+                    ready.clear();
+                    subscription = upstream;
+                    cancelled = new ArrayList<>(running);
+                }
+
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+
+                for (CompletableFuture<TextRankRun> future : cancelled) {
+                    future.cancel(true);
+                }
+            }
+        });
+
+        drain();
+    }
+
+
+    /**
+     * Deliver completed runs as far as demand allows, then ask
+     * upstream for as many documents as may be taken on. Only one
+     * thread drains at a time; the others leave their work to it.
+     */
+
+    protected void drain() {
+        synchronized (this) {
+            if (draining) {
+                return;
+            }
+
+            draining = true;
+        }
+
+        try {
+            while (true) {
+                TextRankRun run = null;
+                Throwable error = null;
+                boolean complete = false;
+                long request = 0L;
+                Flow.Subscription subscription = null;
+                List<CompletableFuture<TextRankRun>> cancelled = null;
+
+                synchronized (this) {
+                    if (terminated || downstream == null) {
+                        draining = false;
+                        return;
+                    }
+
+                    if (downstream_error != null) {
+                        // a broken request ends the stream right away
+                        terminated = true;
+                        error = downstream_error;
+                        subscription = upstream;
+                        cancelled = new ArrayList<>(running);
+                        ready.clear();
+                    }
+                    else if ((demand > 0L) && !ready.isEmpty()) {
+                        run = ready.poll();
+                        demand--;
+                        active--;
+                    }
+                    else if (upstream_done && (active == 0)) {
+                        // deliver what is in flight, then pass on how
+                        // upstream ended
+                        terminated = true;
+                        error = upstream_error;
+                        complete = (error == null);
+                    }
+                    else {
+                        if (!upstream_done && (upstream != null)) {
+                            final int pending = requested + active;
+                            request = Math.min(max_in_flight - pending, demand - pending);
+                        }
+
+                        if (request > 0L) {
+                            requested += (int) request;
+                            subscription = upstream;
+                        }
+                        else {
+                            draining = false;
+                            return;
+                        }
+                    }
+                }
+
+                if (run != null) {
+                    downstream.onNext(run);
+                }
+                else if (complete) {
+                    downstream.onComplete();
+                }
+                else if (error != null) {
+                    if (subscription != null) {
+                        subscription.cancel();
+                    }
+
+                    if (cancelled != null) {
+                        for (CompletableFuture<TextRankRun> future : cancelled) {
+                            future.cancel(true);
+                        }
+                    }
+
+                    downstream.onError(error);
+                }
+                else {
+                    subscription.request(request);
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            synchronized (this) {
+                draining = false;
+            }
+
+            throw e;
+        }
+    }
+}
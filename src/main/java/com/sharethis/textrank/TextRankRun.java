@@ -63,46 +63,127 @@ public class TextRankRun implements Callable<TextRankRun>{
     protected Graph graph = null;
     protected Graph ngram_subgraph = null;
     protected Map<NGram, MetricVector> metric_space = null;
+    protected List<Sentence> s_list = null;
+    protected Graph synset_subgraph = null;
+    protected int ngram_max_count = 0;
+
+    protected RankSolver solver = new JacobiSolver();
+    protected int top_k = 0;
+    protected int stable_sweeps = 0;
+    protected boolean warm_start = false;
+    protected int cooccurrence_window = 0;
 
     protected long start_time = 0L;
     protected long elapsed_time = 0L;
+    protected final Map<String, Long> elapsed_times = new LinkedHashMap<>();
+    protected RankReport keyword_report = null;
+    protected RankReport ngram_report = null;
+    protected final RunMetrics metrics = new RunMetrics();
+    protected DocumentEvent document_event = null;
+    protected PassEvent pass_event = null;
 
 
     /**
      * Constructor.
      */
 
-    public TextRankRun(LanguageModel lang, WordNet wordNet, final String text) throws Exception {
+    public TextRankRun(LanguageModel lang, WordNet wordNet, final String text) {
         this.lang = lang;
         this.wordNet = wordNet;
         this.text = text;
     }
 
 
+    /**
+     * Choose the solver used to iterate ranks in PASS 2 and PASS 4.
+     */
+
+    public void setSolver(final RankSolver solver) {
+        this.solver = solver;
+    }
+
+
+    /**
+     * Stop rank iterations once the top_k nodes have been stable for
+     * stable_sweeps consecutive sweeps. A top_k of zero disables this.
+     */
+
+    public void setTopKStability(final int top_k, final int stable_sweeps) {
+        this.top_k = top_k;
+        this.stable_sweeps = stable_sweeps;
+    }
+
+
+    /**
+     * Seed the PASS 4 re-run from the PASS 2 ranks, relaxing locally
+     * around the nodes attached or relinked since PASS 2 (n-grams,
+     * synsets, and the keywords they link to) before iterating
+     * globally.
+     */
+
+    public void setWarmStart(final boolean warm_start) {
+        this.warm_start = warm_start;
+    }
+
+
+    /**
+     * Link keywords within a sliding window of the given size, using
+     * weighted co-occurrence edges; 0 keeps the unweighted links
+     * between adjacent keywords.
+     */
+
+    public void setCooccurrenceWindow(final int cooccurrence_window) {
+        this.cooccurrence_window = cooccurrence_window;
+    }
+
+
     /**
      * Run the TextRank algorithm on the given semi-structured text
      * (e.g., results of parsed HTML from crawled web content) to
      * build a graph of weighted key phrases.
      */
     public TextRankRun call() throws Exception {
+        constructGraph();
+        rankKeywords();
+        augmentGraph();
+        rankNGrams();
+        normalizeRanks();
+
+        return this;
+    }
+
+
+    /**
+     * PASS 1: split, tokenize and tag the text (OpenNLP) to construct
+     * a graph of relevant morphemes.
+     */
+
+    public void constructGraph() throws Exception {
+        document_event = new DocumentEvent();
+        document_event.begin();
 
         graph = new Graph();
+        graph.setSolver(solver);
+        graph.setCooccurrenceWindow(cooccurrence_window);
         ngram_subgraph = null;
         metric_space = new HashMap<>();
 
-        //////////////////////////////////////////////////
-        // PASS 1: construct a graph from PoS tags
-
         initTime();
 
         // scan sentences to construct a graph of relevent morphemes
 
-        final ArrayList<Sentence> s_list = new ArrayList<>();
+        s_list = new ArrayList<>();
 
         for (String sent_text : lang.splitParagraph(text)) {
+            checkInterrupted();
+
             final Sentence s = new Sentence(sent_text.trim());
-            s.mapTokens(lang, graph);
+            if (s.mapTokens(lang, graph)) {
+                metrics.sentence_cache_hits++;
+            }
+
             s_list.add(s);
+            metrics.tokens += s.token_list.length;
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("s: " + s.text);
@@ -110,34 +191,53 @@ public class TextRankRun implements Callable<TextRankRun>{
             }
         }
 
+        metrics.sentences = s_list.size();
+        metrics.graph_nodes = graph.size();
+        metrics.graph_links = graph.getLinkCount();
+
         markTime("construct_graph");
+    }
+
 
-        //////////////////////////////////////////////////
-        // PASS 2: run TextRank to determine keywords
+    /**
+     * PASS 2: run TextRank to determine keywords, then collect the
+     * n-grams around them.
+     */
 
+    public void rankKeywords() throws Exception {
         initTime();
 
         final int max_results =
                 (int) Math.round((double) graph.size() * Graph.KEYWORD_REDUCTION_FACTOR);
 
-        graph.runTextRank();
+        keyword_report = graph.runTextRank(top_k, stable_sweeps);
         graph.sortResults(max_results);
 
         ngram_subgraph = NGram.collectNGrams(lang, s_list, graph.getRankThreshold());
 
+        metrics.keyword_iterations = keyword_report.iterations;
+        metrics.ngram_nodes = ngram_subgraph.size();
+
         markTime("basic_textrank");
 
         if (LOG.isInfoEnabled()) {
             LOG.info("TEXT_BYTES:\t" + text.length());
             LOG.info("GRAPH_SIZE:\t" + graph.size());
+            LOG.info("RANK:\t" + keyword_report);
         }
 
-        //////////////////////////////////////////////////
-        // PASS 3: lemmatize selected keywords and phrases
+    }
+
 
+    /**
+     * PASS 3: lemmatize selected keywords and phrases (WordNet), then
+     * augment the graph with the n-grams.
+     */
+
+    public void augmentGraph() throws Exception {
         initTime();
 
-        Graph synset_subgraph = new Graph();
+        synset_subgraph = new Graph();
 
         // filter for edge cases
 
@@ -148,9 +248,9 @@ public class TextRankRun implements Callable<TextRankRun>{
                 final KeyWord kw = (KeyWord) n.value;
 
                 if (lang.isNoun(kw.pos)) {
-                    SynsetLink.addKeyWord(synset_subgraph, n, kw.text, POS.NOUN, wordNet);
+                    countLookup(SynsetLink.addKeyWord(synset_subgraph, n, kw.text, POS.NOUN, wordNet));
                 } else if (lang.isAdjective(kw.pos)) {
-                    SynsetLink.addKeyWord(synset_subgraph, n, kw.text, POS.ADJECTIVE, wordNet);
+                    countLookup(SynsetLink.addKeyWord(synset_subgraph, n, kw.text, POS.ADJECTIVE, wordNet));
                 }
             }
 
@@ -160,7 +260,7 @@ public class TextRankRun implements Callable<TextRankRun>{
                 final NGram gram = (NGram) n.value;
 
                 if (gram.nodes.size() > 1) {
-                    SynsetLink.addKeyWord(synset_subgraph, n, gram.getCollocation(), POS.NOUN, wordNet);
+                    countLookup(SynsetLink.addKeyWord(synset_subgraph, n, gram.getCollocation(), POS.NOUN, wordNet));
                 }
             }
 
@@ -168,6 +268,8 @@ public class TextRankRun implements Callable<TextRankRun>{
                     SynsetLink.pruneGraph(synset_subgraph, graph);
         }
 
+        metrics.synset_nodes = synset_subgraph.size();
+
         // augment the graph with n-grams added as nodes
 
         for (Node n : ngram_subgraph.values()) {
@@ -183,18 +285,32 @@ public class TextRankRun implements Callable<TextRankRun>{
         }
 
         markTime("augment_graph");
+    }
+
 
-        //////////////////////////////////////////////////
-        // PASS 4: re-run TextRank on the augmented graph
+    /**
+     * PASS 4: re-run TextRank on the augmented graph.
+     */
 
+    public void rankNGrams() throws Exception {
         initTime();
 
-        graph.runTextRank();
+        if (warm_start) {
+            graph.setSolver(new WarmStartSolver(solver));
+        }
+
+        ngram_report = graph.runTextRank(top_k, stable_sweeps);
         //graph.sortResults(graph.size() / 2);
 
+        metrics.ngram_iterations = ngram_report.iterations;
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info("RANK:\t" + ngram_report);
+        }
+
         // collect stats for metrics
 
-        final int ngram_max_count =
+        ngram_max_count =
                 NGram.calcStats(ngram_subgraph);
 
         if (usingWordNet()) {
@@ -218,14 +334,19 @@ public class TextRankRun implements Callable<TextRankRun>{
 
                 for (Node n : new TreeSet<>(synset_subgraph.values())) {
                     final SynsetLink s = (SynsetLink) n.value;
-                    LOG.info("emit: " + s.synset + " " + n.rank + " " + s.relation);
+                    LOG.info("emit: " + s.getDescription() + " " + n.rank);
                 }
             }
         }
 
-        //////////////////////////////////////////////////
-        // PASS 5: construct a metric space for overall ranking
+    }
+
+
+    /**
+     * PASS 5: construct a metric space for overall ranking.
+     */
 
+    public void normalizeRanks() {
         initTime();
 
         final double link_min = ngram_subgraph.dist_stats.getMin();
@@ -252,9 +373,37 @@ public class TextRankRun implements Callable<TextRankRun>{
 
         markTime("normalize_ranks");
 
-        return this;
+        if (document_event.shouldCommit()) {
+            document_event.set(text.length(), metrics);
+            document_event.commit();
+        }
     }
 
+    /**
+     * Count a WordNet lookup in the metrics.
+     */
+
+    protected void countLookup(final boolean hit) {
+        metrics.wordnet_lookups++;
+
+        if (hit) {
+            metrics.wordnet_hits++;
+        }
+    }
+
+
+    /**
+     * Give up once the worker running this has been interrupted,
+     * e.g., by a timeout cancelling its future.
+     */
+
+    protected static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+
     public boolean usingWordNet() {
         return wordNet != null;
     }
@@ -269,19 +418,34 @@ public class TextRankRun implements Callable<TextRankRun>{
      */
 
     public void initTime() {
-        start_time = System.currentTimeMillis();
+        pass_event = new PassEvent();
+        pass_event.begin();
+        start_time = System.nanoTime();
     }
 
 
     /**
-     * Report the elapsed time with a label.
+     * Record the elapsed time with a label, in the metrics (ns) and
+     * the elapsed times (ms).
      */
 
     public void markTime(final String label) {
-        elapsed_time = System.currentTimeMillis() - start_time;
+        final long elapsed_nanos = System.nanoTime() - start_time;
 
-        if (LOG.isInfoEnabled()) {
-            LOG.info("ELAPSED_TIME:\t" + elapsed_time + "\t" + label);
+        elapsed_time = elapsed_nanos / 1000000L;
+        elapsed_times.put(label, elapsed_time);
+
+        synchronized (metrics) {
+            metrics.pass_nanos.put(label, elapsed_nanos);
+        }
+
+        if ((pass_event != null) && pass_event.shouldCommit()) {
+            pass_event.set(label, text.length(), metrics);
+            pass_event.commit();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("ELAPSED_TIME:\t" + elapsed_time + "\t" + label);
         }
     }
 
@@ -295,6 +459,52 @@ public class TextRankRun implements Callable<TextRankRun>{
     }
 
 
+    /**
+     * Accessor for the n-gram subgraph.
+     */
+
+    public Graph getNGramSubgraph() {
+        return ngram_subgraph;
+    }
+
+
+    /**
+     * Accessor for the elapsed time (ms) of each pass, by the label
+     * given to markTime(), in order.
+     */
+
+    public Map<String, Long> getElapsedTimes() {
+        return elapsed_times;
+    }
+
+
+    /**
+     * Accessor for the metrics of this run.
+     */
+
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+
+
+    /**
+     * Accessor for the report of the keyword ranking (PASS 2).
+     */
+
+    public RankReport getKeywordReport() {
+        return keyword_report;
+    }
+
+
+    /**
+     * Accessor for the report of the n-gram ranking (PASS 4).
+     */
+
+    public RankReport getNGramReport() {
+        return ngram_report;
+    }
+
+
     /**
      * Serialize results to a string.
      */
@@ -0,0 +1,97 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import java.util.Arrays;
+
+
+/**
+ * Tracks the membership and order of the top-K nodes across sweeps,
+ * to stop iterating once they have not changed for a number of
+ * consecutive sweeps. Only the head of the ranking gets consumed
+ * downstream, so it does not have to wait for the global error.
+ *
+ * A tracker holds state for one solve, so create a new one each time.
+ */
+
+public class TopKTracker {
+
+    /**
+     * Protected members.
+     */
+
+    protected final int k;
+    protected final int stable_sweeps;
+    protected int[] top = null;
+    protected int stable_count = 0;
+
+
+    /**
+     * Constructor.
+     *
+     * @param k how many of the top-ranked nodes to track
+     * @param stable_sweeps how many consecutive sweeps they must stay
+     * unchanged before iteration stops
+     */
+
+    public TopKTracker(final int k, final int stable_sweeps) {
+        if ((k < 1) || (stable_sweeps < 1)) {
+            throw new IllegalArgumentException("k and stable_sweeps must be positive: " + k + ", " + stable_sweeps);
+        }
+
+        this.k = k;
+        this.stable_sweeps = stable_sweeps;
+    }
+
+
+    /**
+     * Inspect the ranks after a sweep.
+     *
+     * @return true once the top-K has been stable long enough
+     */
+
+    public boolean update(final double[] rank, final int size) {
+        final int[] current = RankSelection.topK(rank, size, k);
+
+        if ((top != null) && Arrays.equals(top, current)) {
+            stable_count++;
+        }
+        else {
+            stable_count = 0;
+        }
+
+        top = current;
+
+        return stable_count >= stable_sweeps;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+Copyright (c) 2009, ShareThis, Inc. All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimer in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the name of the ShareThis, Inc., nor the names of its
+      contributors may be used to endorse or promote products derived
+      from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+
+package com.sharethis.textrank;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Re-ranks a graph that already converged once and has since been
+ * augmented (PASS 4, after the n-gram nodes get attached).
+ * The previous ranks are kept as the starting point, and ranks first
+ * get relaxed locally around the newly attached nodes, and the nodes
+ * whose neighbors changed, until the changes settle. The wrapped
+ * solver then runs globally from that state, which normally takes
+ * only a sweep or two to confirm convergence, or finishes the job if
+ * the local budget ran out.
+ *
+ * Without any record of a previous run, it just delegates.
+ */
+
+public class WarmStartSolver extends RankSolver {
+
+    // logging
+
+    private final static Log LOG =
+        LogFactory.getLog(WarmStartSolver.class.getName());
+
+    /**
+     * Public definitions.
+     */
+
+    public final static double DEFAULT_LOCAL_TOLERANCE = 1.0E-3D;
+    public final static double DEFAULT_LOCAL_BUDGET = 2.0D;
+
+    /**
+     * Protected members.
+     */
+
+    protected final RankSolver fallback;
+    protected final double local_tolerance;
+    protected final double local_budget;
+
+
+    /**
+     * Constructor.
+     */
+
+    public WarmStartSolver(final RankSolver fallback) {
+        this(fallback, DEFAULT_LOCAL_TOLERANCE, DEFAULT_LOCAL_BUDGET);
+    }
+
+
+    /**
+     * Constructor.
+     *
+     * @param fallback solver for the global pass
+     * @param local_tolerance rank change below which a node does not
+     * propagate to its neighbors during the local pass
+     * @param local_budget cap on local node updates, in multiples of
+     * the graph size (i.e., full sweeps' worth)
+     */
+
+    public WarmStartSolver(final RankSolver fallback, final double local_tolerance, final double local_budget) {
+        super(fallback.max_iterations, fallback.tolerance);
+        this.fallback = fallback;
+        this.local_tolerance = local_tolerance;
+        this.local_budget = local_budget;
+    }
+
+
+    /**
+     * Ask the graph to record which nodes are new since the last run.
+     */
+
+    public boolean isWarmStart() {
+        return true;
+    }
+
+
+    /**
+     * Relax locally around the fresh nodes, then run the fallback
+     * solver globally.
+     */
+
+    public RankReport solve(final CompactGraph cg, final TopKTracker tracker) {
+        if (cg.fresh == null) {
+            return fallback.solve(cg, tracker);
+        }
+
+        cg.prepareShares();
+
+        final long budget = (long) Math.ceil(local_budget * (double) cg.size);
+        final long local_updates = cg.relaxLocal(local_tolerance, budget);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("local updates: " + local_updates + " budget: " + budget);
+        }
+
+        final RankReport global = fallback.solve(cg, tracker);
+
+        return new RankReport(getClass().getSimpleName() + "/" + global.solver, global.iterations, global.residual, global.converged, global.top_k_stable, global.iterations_saved, local_updates);
+    }
+
+
+    /**
+     * Set up the graph as the fallback solver would.
+     */
+
+    protected void prepare(final CompactGraph cg) {
+        fallback.prepare(cg);
+    }
+
+
+    /**
+     * Run one sweep of the fallback solver.
+     */
+
+    protected double sweep(final CompactGraph cg) {
+        return fallback.sweep(cg);
+    }
+}
@@ -32,9 +32,17 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.sharethis.textrank;
 
+import com.sharethis.common.StripedLruCache;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
 import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.data.IndexWord;
 import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.data.Pointer;
+import net.sf.extjwnl.data.PointerType;
+import net.sf.extjwnl.data.Synset;
 import net.sf.extjwnl.dictionary.Dictionary;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -51,7 +59,26 @@ public class WordNet {
     // logging
     private final static Log LOG = LogFactory.getLog(WordNet.class.getName());
 
+    /**
+     * Public definitions.
+     */
+
+    public final static long CACHE_ENTRIES = 32768L;
+    public final static int CACHE_STRIPES = 16;
+
+
+    /**
+     * Marks a cached miss, i.e., no lemma for the text.
+     */
+
+    protected final static Neighborhood NONE = new Neighborhood(null, null, new long[0], new long[0][], new long[0][][]);
+
     private Dictionary dictionary = null;
+    private NeighborhoodIndex index = null;
+    private volatile StripedLruCache<String, Neighborhood> cache =
+        new StripedLruCache<>(CACHE_ENTRIES, CACHE_STRIPES);
+    private volatile LemmaFilter lemma_filter = null;
+    private final LongAdder filter_rejects = new LongAdder();
 
 	public WordNet() {
 		try {
@@ -62,11 +89,194 @@ public class WordNet {
 	}
 
 
+    /**
+     * Read neighborhoods from a precomputed index instead, without
+     * loading the dictionary; see NeighborhoodIndex.
+     */
+
+    public WordNet(final NeighborhoodIndex index) {
+        this.index = index;
+    }
+
+
     /**
      * Lookup the first lemma found.
      */
 
     public IndexWord getLemma (final POS pos, final String derivation) throws JWNLException {
+        if (dictionary == null) {
+            throw new IllegalStateException("no dictionary loaded, neighborhoods come from " + index.getFile());
+        }
+
         return dictionary.getMorphologicalProcessor().lookupBaseForm(pos, derivation);
     }
+
+
+    /**
+     * Lookup the first lemma found, and collect its neighborhood of
+     * synsets. Both hits and misses get cached, across runs.
+     *
+     * @return the neighborhood, or null if there is no lemma
+     * @throws IllegalArgumentException if neighborhoods come from a
+     * NeighborhoodIndex, which covers only nouns and adjectives, and
+     * the part of speech is another
+     */
+
+    public Neighborhood getNeighborhood (final POS pos, final String derivation) throws JWNLException {
+        final StripedLruCache<String, Neighborhood> c = cache;
+
+        if (c == null) {
+            return lookupNeighborhood(pos, derivation);
+        }
+
+        final String key = pos.getKey() + '\t' + derivation;
+        Neighborhood neighborhood = c.get(key);
+
+        if (neighborhood == null) {
+            neighborhood = lookupNeighborhood(pos, derivation);
+            c.put(key, (neighborhood == null) ? NONE : neighborhood);
+        }
+
+        return (neighborhood == NONE) ? null : neighborhood;
+    }
+
+
+    /**
+     * Lookup the neighborhood without the cache, skipping the lemma
+     * lookup when the lemma filter rejects the text.
+     */
+
+    protected Neighborhood lookupNeighborhood (final POS pos, final String derivation) throws JWNLException {
+        final LemmaFilter filter = lemma_filter;
+
+        if ((filter != null) && !filter.mightHaveLemma(pos, derivation)) {
+            filter_rejects.increment();
+            return null;
+        }
+
+        if (index != null) {
+            return index.lookup(pos, derivation);
+        }
+
+        return expand(getLemma(pos, derivation));
+    }
+
+
+    /**
+     * Collect the synsets around a lemma, reading the hyponym offsets
+     * off the pointers without loading the sibling synsets.
+     */
+
+    protected static Neighborhood expand (final IndexWord iw) throws JWNLException {
+        if (iw == null) {
+            return null;
+        }
+
+        final List<Synset> senses = iw.getSenses();
+        final long[] synsets = new long[senses.size()];
+        final long[][] hypernyms = new long[senses.size()][];
+        final long[][][] siblings = new long[senses.size()][][];
+
+        for (int i = 0; i < synsets.length; i++) {
+            final Synset synset = senses.get(i);
+            final List<Pointer> hypernym_list = synset.getPointers(PointerType.HYPERNYM);
+
+            synsets[i] = synset.getOffset();
+            hypernyms[i] = new long[hypernym_list.size()];
+            siblings[i] = new long[hypernym_list.size()][];
+
+            for (int j = 0; j < hypernyms[i].length; j++) {
+                final Synset hypernym_synset = hypernym_list.get(j).getTargetSynset();
+                final List<Pointer> hyponym_list = hypernym_synset.getPointers(PointerType.HYPONYM);
+
+                hypernyms[i][j] = hypernym_synset.getOffset();
+                siblings[i][j] = new long[hyponym_list.size()];
+
+                for (int k = 0; k < siblings[i][j].length; k++) {
+                    siblings[i][j][k] = hyponym_list.get(k).getTargetOffset();
+                }
+            }
+        }
+
+        return new Neighborhood(iw.getPOS(), iw.getLemma(), synsets, hypernyms, siblings);
+    }
+
+
+    /**
+     * Cache neighborhoods in the given cache; null turns this off.
+     */
+
+    public void setCache (final StripedLruCache<String, Neighborhood> cache) {
+        this.cache = cache;
+    }
+
+
+    public StripedLruCache<String, Neighborhood> getCache () {
+        return cache;
+    }
+
+
+    /**
+     * @return the index neighborhoods come from, or null when they
+     * come from the dictionary
+     */
+
+    public NeighborhoodIndex getIndex () {
+        return index;
+    }
+
+
+    /**
+     * Build a lemma filter from this dictionary, or index.
+     *
+     * @param fpp rate of false positives, per probe
+     */
+
+    public LemmaFilter buildLemmaFilter (final double fpp) throws JWNLException {
+        if (dictionary == null) {
+            return LemmaFilter.build(index, fpp);
+        }
+
+        return LemmaFilter.build(dictionary, fpp);
+    }
+
+
+    /**
+     * Build a lemma filter from this dictionary, or index, within a
+     * memory budget.
+     *
+     * @param max_bytes size of the bit array
+     */
+
+    public LemmaFilter buildLemmaFilter (final long max_bytes) throws JWNLException {
+        if (dictionary == null) {
+            return LemmaFilter.build(index, max_bytes);
+        }
+
+        return LemmaFilter.build(dictionary, max_bytes);
+    }
+
+
+    /**
+     * Reject lookups which can not find a lemma with the given
+     * filter; null turns this off.
+     */
+
+    public void setLemmaFilter (final LemmaFilter lemma_filter) {
+        this.lemma_filter = lemma_filter;
+    }
+
+
+    public LemmaFilter getLemmaFilter () {
+        return lemma_filter;
+    }
+
+
+    /**
+     * @return the number of lookups the lemma filter rejected
+     */
+
+    public long getFilterRejects () {
+        return filter_rejects.sum();
+    }
 }
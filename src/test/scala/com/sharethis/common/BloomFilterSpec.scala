@@ -0,0 +1,36 @@
+package com.sharethis.common
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, DataInputStream, DataOutputStream}
+
+import org.specs2.mutable.Specification
+
+class BloomFilterSpec extends Specification {
+
+  "BloomFilter" should {
+
+    "Contain everything put, with false positives near the target rate" in {
+      val filter = BloomFilter.create(10000, 0.01)
+      (0 until 10000).foreach(i => filter.put("in" + i))
+
+      (0 until 10000).forall(i => filter.mightContain("in" + i)) must beTrue
+      val false_positives = (0 until 10000).count(i => filter.mightContain("out" + i))
+      false_positives must beLessThan(200)
+    }
+
+    "Read back what it writes" in {
+      val filter = BloomFilter.withBytes(100, 256)
+      filter.put("alpha")
+      filter.put("beta")
+
+      val bytes = new ByteArrayOutputStream()
+      filter.writeTo(new DataOutputStream(bytes))
+      val copy = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray)))
+
+      copy.mightContain("alpha") must beTrue
+      copy.mightContain("beta") must beTrue
+      copy.size mustEqual 2
+      copy.getBitCount mustEqual 2048
+      copy.getHashCount mustEqual filter.getHashCount
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.sharethis.common
+
+import org.specs2.mutable.Specification
+
+class HistogramSpec extends Specification {
+
+  "Histogram" should {
+
+    "Count, sum and bound the values it records" in {
+      val histogram = new Histogram()
+      (1 to 100).foreach(i => histogram.record(i))
+      histogram.record(-5)
+
+      histogram.getCount mustEqual 101
+      histogram.getSum mustEqual 5050
+      histogram.getMax mustEqual 100
+      histogram.getMean must beCloseTo(5050.0 / 101.0, 1e-9)
+    }
+
+    "Bound each percentile within one bucket above the recorded value" in {
+      val histogram = new Histogram()
+      (1 to 10000).foreach(i => histogram.record(i * 1000L))
+
+      val p50 = histogram.getPercentile(0.5)
+      val p99 = histogram.getPercentile(0.99)
+      p50 must be_>=(5000000L)
+      p50 must be_<=(5000000L * 9 / 8)
+      p99 must be_>=(9900000L)
+      p99 must be_<=(10000000L)
+      histogram.getPercentile(1.0) mustEqual 10000000L
+    }
+
+    "Report nothing before the first value, and after a reset" in {
+      val histogram = new Histogram()
+      histogram.getPercentile(0.99) mustEqual 0
+      histogram.getMean mustEqual 0.0
+
+      histogram.record(42)
+      histogram.reset()
+      histogram.getCount mustEqual 0
+      histogram.getMax mustEqual 0
+      histogram.getPercentile(0.99) mustEqual 0
+    }
+
+    "Lose no values recorded from many threads" in {
+      val histogram = new Histogram()
+      val threads = (0 until 8).map(t => new Thread(new Runnable {
+        def run(): Unit = (0 until 10000).foreach(i => histogram.record(i))
+      }))
+      threads.foreach(_.start())
+      threads.foreach(_.join())
+
+      histogram.getCount mustEqual 80000
+      histogram.getSum mustEqual 8L * (9999L * 10000L / 2)
+      histogram.getMax mustEqual 9999
+    }
+  }
+}
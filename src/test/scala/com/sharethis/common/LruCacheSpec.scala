@@ -0,0 +1,49 @@
+package com.sharethis.common
+
+import org.specs2.mutable.Specification
+
+class LruCacheSpec extends Specification {
+
+  "LruCache" should {
+
+    "Evict the least recently used entry beyond its entry bound" in {
+      val cache = LruCache.byEntries[String, Integer](2, 0)
+      cache.put("a", 1)
+      cache.put("b", 2)
+      cache.get("a")
+      cache.put("c", 3)
+
+      cache.get("b") must beNull
+      cache.get("a") mustEqual 1
+      cache.get("c") mustEqual 3
+      cache.getEvictions mustEqual 1
+      cache.getHits mustEqual 3
+      cache.getMisses mustEqual 1
+    }
+
+    "Stay within its weight bound, and skip values heavier than the cache" in {
+      val cache = LruCache.byWeight[String, String](10, 0, new LruCache.Weigher[String, String] {
+        def weigh(key: String, value: String): Long = value.length
+      })
+      cache.put("a", "xxxx")
+      cache.put("b", "xxxx")
+      cache.put("c", "xxxx")
+      cache.put("d", "x" * 11)
+
+      cache.getWeight mustEqual 8
+      cache.size mustEqual 2
+      cache.get("a") must beNull
+      cache.get("d") must beNull
+    }
+
+    "Expire entries after their time-to-live" in {
+      val cache = LruCache.byEntries[String, Integer](10, 1)
+      cache.put("a", 1)
+      Thread.sleep(5)
+
+      cache.get("a") must beNull
+      cache.getExpirations mustEqual 1
+      cache.size mustEqual 0
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.sharethis.common
+
+import org.specs2.mutable.Specification
+
+class StripedLruCacheSpec extends Specification {
+
+  "StripedLruCache" should {
+
+    "Stay within its entry bound across all its stripes" in {
+      val cache = new StripedLruCache[String, Integer](100, 3)
+      (0 until 1000).foreach(i => cache.put("k" + i, i))
+
+      cache.size must beLessThanOrEqualTo(100)
+      cache.getEvictions mustEqual (1000 - cache.size)
+      cache.get("k999") mustEqual 999
+    }
+
+    "Count hits and misses over all its stripes" in {
+      val cache = new StripedLruCache[String, Integer](100, 4)
+      cache.put("a", 1)
+      cache.put("b", 2)
+      cache.get("a")
+      cache.get("b")
+      cache.get("c")
+
+      cache.getHits mustEqual 2
+      cache.getMisses mustEqual 1
+      cache.getHitRate must beCloseTo(2.0 / 3.0, 1e-9)
+    }
+
+    "Stay within its weight bound across all its stripes" in {
+      val cache = StripedLruCache.byWeight[String, String](1000, 4, new LruCache.Weigher[String, String] {
+        def weigh(k: String, v: String): Long = k.length + v.length
+      })
+      (0 until 1000).foreach(i => cache.put("k" + i, "v" * 10))
+
+      cache.getWeight must beLessThanOrEqualTo(1000L)
+      cache.getWeight must beGreaterThan(0L)
+      cache.get("k999") mustEqual ("v" * 10)
+    }
+  }
+}
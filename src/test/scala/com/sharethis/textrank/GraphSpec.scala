@@ -0,0 +1,267 @@
+package com.sharethis.textrank
+
+import java.util.concurrent.ForkJoinPool
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+class GraphSpec extends Specification {
+  sequential
+
+  "Rank solvers" should {
+
+    "Converge to the same ranks" in {
+      val graph = buildGraph(3000)
+      val reference = rank(graph, new PowerIterationSolver(1000, 1.0e-12))
+
+      foreach(Seq(
+        new JacobiSolver(1000, 1.0e-9),
+        new GaussSeidelSolver(1000, 1.0e-9, 1.0),
+        new GaussSeidelSolver(1000, 1.0e-9, 1.3))) { solver =>
+        val ranks = rank(graph, solver)
+        ranks.zip(reference).map { case (a, b) => math.abs(a - b) }.max must be_<(1.0e-6)
+      }
+    }
+
+    "Converge in fewer sweeps with Gauss-Seidel than with power iteration" in {
+      val graph = buildGraph(3000)
+      graph.setSolver(new PowerIterationSolver(1000, 1.0e-6))
+      val power = graph.runTextRank()
+      resetRanks(graph)
+      graph.setSolver(new GaussSeidelSolver(1000, 1.0e-6, 1.0))
+      val gaussSeidel = graph.runTextRank()
+
+      gaussSeidel.converged must beTrue
+      gaussSeidel.iterations must be_<(power.iterations)
+    }
+
+    "Give up with a cancellation once the thread is interrupted" in {
+      val graph = buildGraph(3000)
+      graph.setSolver(new JacobiSolver(1000, 0.0))
+      Thread.currentThread.interrupt()
+
+      try {
+        graph.runTextRank() must throwA[java.util.concurrent.CancellationException]
+      } finally {
+        Thread.interrupted()
+      }
+    }
+
+    "Never run more sweeps than the iteration cap" in {
+      val graph = buildGraph(3000)
+      graph.setSolver(new JacobiSolver(3, 0.0))
+      val report = graph.runTextRank()
+
+      report.iterations mustEqual 3
+      report.converged must beFalse
+    }
+
+    "Produce identical ranks regardless of the number of threads" in {
+      val graph = buildGraph(5000)
+      val sequential = rank(graph, new JacobiSolver(50, 0.0, null, 0))
+
+      foreach(Seq(1, 2, 4)) { threads =>
+        rank(graph, new JacobiSolver(50, 0.0, new ForkJoinPool(threads), 0)) mustEqual sequential
+      }
+    }
+  }
+
+  "Top-K stability" should {
+
+    "Select the same top nodes as a full sort" in {
+      val random = new scala.util.Random(7)
+      val ranks = Array.fill(1000)(random.nextInt(50).toDouble)
+      val sorted = ranks.indices.sortBy(i => (-ranks(i), i)).take(25)
+
+      RankSelection.topK(ranks, ranks.length, 25).toSeq mustEqual sorted
+    }
+
+    "Stop early once the top nodes are stable" in {
+      val graph = buildGraph(3000)
+      val converged = rank(graph, new PowerIterationSolver(1000, 1.0e-12))
+      val full = graph.getLastReport
+
+      resetRanks(graph)
+      val report = graph.runTextRank(20, 3)
+      val ranks = graph.values.map(_.rank).toArray
+
+      report.top_k_stable must beTrue
+      report.iterations must be_<(full.iterations)
+      report.iterations_saved must be_>(0)
+      RankSelection.topK(ranks, ranks.length, 20).toSeq mustEqual
+        RankSelection.topK(converged.toArray, ranks.length, 20).toSeq
+    }
+  }
+
+  "Warm starts" should {
+
+    "Re-rank an augmented graph to the same ranks in fewer sweeps" in {
+      val solver = new GaussSeidelSolver(1000, 1.0e-9, 1.0)
+      val graph = buildGraph(3000)
+      graph.setSolver(solver)
+      graph.runTextRank()
+
+      val keywords = graph.values.toList
+      for (i <- 0 until 10) {
+        val n = Node.buildNode(graph, f"NGram$i%03d", new KeyWord("gram" + i, "NN"))
+        n.connect(keywords(i * 7))
+        n.connect(keywords(i * 7 + 1))
+      }
+
+      graph.setSolver(new WarmStartSolver(solver))
+      val warm = graph.runTextRank()
+      val warmRanks = graph.values.map(_.rank).toList
+      val cold = rank(graph, solver)
+
+      warm.local_updates must be_>(0L)
+      warm.iterations must be_<(graph.getLastReport.iterations)
+      warmRanks.zip(cold).map { case (a, b) => math.abs(a - b) }.max must be_<(1.0e-6)
+    }
+
+    "Relax around nodes which only gained links, with no new nodes" in {
+      val solver = new GaussSeidelSolver(1000, 1.0e-9, 1.0)
+      val graph = buildGraph(3000)
+      graph.setSolver(solver)
+      graph.runTextRank()
+
+      val keywords = graph.values.toList
+      for (i <- 0 until 10) keywords(i * 11).connect(keywords(i * 11 + 500))
+
+      graph.setSolver(new WarmStartSolver(solver))
+      val warm = graph.runTextRank()
+      val warmRanks = graph.values.map(_.rank).toList
+      val cold = rank(graph, solver)
+
+      warm.local_updates must be_>(0L)
+      warmRanks.zip(cold).map { case (a, b) => math.abs(a - b) }.max must be_<(1.0e-6)
+    }
+  }
+
+  "Graph construction" should {
+
+    "Intern keys as dense ids, in order of first sight" in {
+      val graph = new Graph()
+      val keys = Seq("NNzebra", "JJquick", "NNapple", "JJquick", "NNzebra", "NNmango")
+      val nodes = keys.map(k => Node.buildNode(graph, k, new KeyWord(k.substring(2), k.substring(0, 2))))
+
+      nodes.map(_.dict_id) mustEqual Seq(0, 1, 2, 1, 0, 3)
+      graph.getId("NNapple") mustEqual 2
+      graph.getId("NNpear") mustEqual -1
+      graph.getNode(3) must beTheSameAs(graph.get("NNmango"))
+      graph.keySet.toList mustEqual List("JJquick", "NNapple", "NNmango", "NNzebra")
+    }
+
+    "Rank a window of 2 the same as unweighted links when pairs occur once" in {
+      val linked = new Graph()
+      val weighted = new Graph()
+      weighted.setCooccurrenceWindow(2)
+
+      val keys = (0 until 500).map(i => f"NN$i%06d")
+      val nodes = keys.map(k => Node.buildNode(linked, k, new KeyWord(k, "NN")))
+      val ids = keys.map(k => Node.buildNode(weighted, k, new KeyWord(k, "NN")).dict_id).toArray
+
+      for (i <- 1 until nodes.size) nodes(i).connect(nodes(i - 1))
+      weighted.addCooccurrences(ids, ids.length)
+
+      linked.runTextRank()
+      weighted.runTextRank()
+
+      keys.forall(k => math.abs(linked.get(k).rank - weighted.get(k).rank) < 1.0e-9) must beTrue
+    }
+
+    "Count co-occurrences within the window, bounded by tokens times window" in {
+      val graph = new Graph()
+      graph.setCooccurrenceWindow(3)
+
+      val ids = Seq("NNa", "NNb", "NNc", "NNa", "NNb").map(k => Node.buildNode(graph, k, new KeyWord(k, "NN")).dict_id).toArray
+      graph.addCooccurrences(ids, ids.length)
+
+      val weights = graph.getEdgeWeights
+      weights.get(ids(0), ids(1)) mustEqual 3
+      weights.get(ids(1), ids(0)) mustEqual 3
+      weights.get(ids(0), ids(2)) mustEqual 2
+      weights.get(ids(1), ids(2)) mustEqual 2
+      weights.size must be_<=(ids.length * 2)
+    }
+
+    "Rank nodes first put into another graph, as the n-grams of PASS 3 are" in {
+      def build(rehome: Boolean): Graph = {
+        val graph = new Graph()
+        graph.setCooccurrenceWindow(3)
+
+        val keys = (0 until 20).map(i => f"NN$i%03d")
+        val keywords = keys.map(k => Node.buildNode(graph, k, new KeyWord(k, "NN")))
+        graph.addCooccurrences(keywords.map(_.dict_id).toArray, keywords.size)
+
+        // more n-grams than the main graph has ids, most never added to it
+        val ngrams =
+          if (rehome) {
+            val other = new Graph()
+            val all = (0 until 600).map(i => Node.buildNode(other, f"gram$i%03d", new KeyWord(f"gram$i%03d", "NN")))
+            all.takeRight(10).foreach(n => graph.put(n.key, n))
+            all.takeRight(10)
+          } else {
+            (590 until 600).map(i => Node.buildNode(graph, f"gram$i%03d", new KeyWord(f"gram$i%03d", "NN")))
+          }
+
+        ngrams.zipWithIndex.foreach { case (n, i) => n.connect(keywords(i)); n.connect(keywords(i + 1)) }
+        graph.runTextRank()
+        graph
+      }
+
+      val direct = build(false)
+      val rehomed = build(true)
+
+      rehomed.values.forall(n => math.abs(n.rank - direct.get(n.key).rank) < 1.0e-9) must beTrue
+    }
+
+    "Not pair a repeated key with itself" in {
+      val graph = new Graph()
+      graph.setCooccurrenceWindow(3)
+
+      val ids = Seq("NNa", "NNa", "NNb", "NNa").map(k => Node.buildNode(graph, k, new KeyWord(k, "NN")).dict_id).toArray
+      graph.addCooccurrences(ids, ids.length)
+
+      val weights = graph.getEdgeWeights
+      weights.get(ids(0), ids(0)) mustEqual 0
+      weights.get(ids(0), ids(2)) mustEqual 3
+      weights.size mustEqual 1
+    }
+  }
+
+  "Sorting results" should {
+
+    "Mark the same nodes as a full sort, and list them in rank order" in {
+      val graph = buildGraph(3000)
+      graph.runTextRank()
+      graph.values.foreach(n => n.rank = math.rint(n.rank * 20.0) / 20.0)
+      val sorted = graph.values.toList.sortBy(-_.rank).take(2401)
+
+      graph.sortResults(2400)
+
+      graph.values.filter(_.marked).toSet mustEqual sorted.toSet
+      graph.getTopNodes.toList mustEqual sorted
+    }
+  }
+
+  def buildGraph(size: Int): Graph = {
+    val graph = new Graph()
+    val random = new scala.util.Random(42)
+    val nodes = (0 until size).map(i => Node.buildNode(graph, f"NN$i%06d", new KeyWord("w" + i, "NN")))
+
+    for (i <- 1 until size) {
+      nodes(i).connect(nodes(i - 1))
+      nodes(i).connect(nodes(random.nextInt(size)))
+    }
+
+    graph
+  }
+
+  def resetRanks(graph: Graph): Unit = graph.values.foreach(_.rank = 1.0)
+
+  def rank(graph: Graph, solver: RankSolver): Seq[Double] = {
+    resetRanks(graph)
+    graph.setSolver(solver)
+    graph.runTextRank()
+    graph.values.map(_.rank).toList
+  }
+}
@@ -0,0 +1,132 @@
+package com.sharethis.textrank
+
+import com.sharethis.common.Digests
+import java.io.{File, RandomAccessFile}
+import java.nio.file.{Files, StandardCopyOption}
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+class KeyphraseStoreSpec extends Specification {
+  sequential
+
+  "KeyphraseStore" should {
+
+    "Return what was put, also after reopening" in {
+      val dir = tempDir()
+      val store = new KeyphraseStore(dir, 1 << 20)
+      store.put(hash(1), phrases(1))
+      store.put(hash(2), phrases(2))
+      store.close()
+
+      val reopened = new KeyphraseStore(dir, 1 << 20)
+      reopened.size mustEqual 2
+      view(reopened.get(hash(1))) mustEqual view(phrases(1))
+      view(reopened.get(hash(2))) mustEqual view(phrases(2))
+      reopened.get(hash(3)) must beNull
+    }
+
+    "Replace overwritten records, and compact once garbage is half the log" in {
+      val dir = tempDir()
+      val store = new KeyphraseStore(dir, 1 << 20)
+      (0 until 100).foreach(i => store.put(hash(1), phrases(i)))
+
+      store.size mustEqual 1
+      view(store.get(hash(1))) mustEqual view(phrases(99))
+      store.getLogBytes must be_<(2L * store.getLiveBytes + recordBytes(store))
+    }
+
+    "Drop the oldest records to stay under the size cap" in {
+      val dir = tempDir()
+      val store = new KeyphraseStore(dir, 4096)
+      (0 until 200).foreach(i => store.put(hash(i), phrases(i)))
+
+      store.getLogBytes must be_<=(4096L)
+      store.size must be_<(200)
+      store.get(hash(0)) must beNull
+      view(store.get(hash(199))) mustEqual view(phrases(199))
+    }
+
+    "Truncate a torn record at the tail of the log" in {
+      val dir = tempDir()
+      val store = new KeyphraseStore(dir, 1 << 20)
+      store.put(hash(1), phrases(1))
+      val length = store.getLogBytes
+      store.close()
+
+      val log = new RandomAccessFile(new File(dir, KeyphraseStore.LOG_FILE), "rw")
+      log.seek(length)
+      log.write(Array[Byte](0, 0, 0, 64, 1, 2, 3, 4, 5, 6))
+      log.close()
+
+      val reopened = new KeyphraseStore(dir, 1 << 20)
+      reopened.getLogBytes mustEqual length
+      view(reopened.get(hash(1))) mustEqual view(phrases(1))
+    }
+
+    "Rebuild a deleted or corrupt index from the log" in {
+      val dir = tempDir()
+      val store = new KeyphraseStore(dir, 1 << 20)
+      (0 until 50).foreach(i => store.put(hash(i), phrases(i)))
+      store.close()
+
+      val index = new File(dir, KeyphraseStore.INDEX_FILE)
+      index.delete()
+      val rebuilt = new KeyphraseStore(dir, 1 << 20)
+      rebuilt.size mustEqual 50
+      rebuilt.close()
+
+      Files.write(index.toPath, Array.fill[Byte](64)(7))
+      val repaired = new KeyphraseStore(dir, 1 << 20)
+      repaired.size mustEqual 50
+      (0 until 50).forall(i => view(repaired.get(hash(i))) == view(phrases(i))) must beTrue
+    }
+
+    "Rebuild the index after a compaction that did not finish its swap" in {
+      val dir = tempDir()
+      val store = new KeyphraseStore(dir, 1 << 20)
+      (0 until 10).foreach(i => store.put(hash(i), phrases(i)))
+      store.close()
+
+      val leftover = new File(dir, KeyphraseStore.INDEX_FILE + ".compact")
+      Files.write(leftover.toPath, Array.fill[Byte](64)(0))
+      val reopened = new KeyphraseStore(dir, 1 << 20)
+
+      leftover.exists must beFalse
+      reopened.size mustEqual 10
+      view(reopened.get(hash(9))) mustEqual view(phrases(9))
+    }
+
+    "Never return the record of another hash through a mismatched index" in {
+      val dir1 = tempDir()
+      val dir2 = tempDir()
+      val store1 = new KeyphraseStore(dir1, 1 << 20)
+      val store2 = new KeyphraseStore(dir2, 1 << 20)
+      store1.put(hash(1), phrases(1))
+      store2.put(hash(2), phrases(2))
+      store1.close()
+      store2.close()
+
+      // same log length, so the header of the other index looks valid
+      Files.copy(new File(dir2, KeyphraseStore.INDEX_FILE).toPath, new File(dir1, KeyphraseStore.INDEX_FILE).toPath, StandardCopyOption.REPLACE_EXISTING)
+
+      val store = new KeyphraseStore(dir1, 1 << 20)
+      store.get(hash(2)) must beNull
+    }
+  }
+
+  def tempDir(): File = {
+    val dir = Files.createTempDirectory("keyphrase-store").toFile
+    dir.deleteOnExit()
+    dir
+  }
+
+  def hash(i: Int): String = Digests.md5Hex("document " + i)
+
+  def phrases(i: Int): java.util.List[Keyphrase] =
+    List(new Keyphrase(f"phrase $i%04d", 1.0 / (i + 1)), new Keyphrase(f"other $i%04d", 0.5))
+
+  def view(keyphrases: java.util.List[Keyphrase]): List[(String, Double)] =
+    keyphrases.map(k => (k.getPhrase, k.getMetric)).toList
+
+  def recordBytes(store: KeyphraseStore): Long = store.getLiveBytes / math.max(store.size, 1)
+}
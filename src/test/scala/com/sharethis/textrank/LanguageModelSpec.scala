@@ -0,0 +1,69 @@
+package com.sharethis.textrank
+
+import java.util.concurrent.{Callable, Executors, TimeUnit}
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+/**
+ * The OpenNLP tools and Snowball stemmers are not thread safe, so
+ * each thread gets its own; check that workers sharing a language
+ * model split, tag and stem the same as one thread does.
+ */
+class LanguageModelSpec extends Specification {
+  sequential
+
+  "LanguageModel in Dutch" should {
+
+    "Split, tag and stem the same from many threads as from one" in {
+      val lang = LanguageModel.buildLanguage("nl")
+      val text = getTestText("/good_nl.txt")
+      val expected = analyze(lang, text)
+      val pool = Executors.newFixedThreadPool(8)
+
+      try {
+        val futures = (0 until 32).map(_ => pool.submit(new Callable[List[List[(String, String, String)]]] {
+          def call(): List[List[(String, String, String)]] = analyze(lang, text)
+        }))
+
+        expected.flatten must not be empty
+        futures.forall(_.get(120, TimeUnit.SECONDS) == expected) must beTrue
+      } finally {
+        pool.shutdown()
+      }
+    }
+
+    "Reuse the cached tokens and tags of a sentence seen before" in {
+      val lang = LanguageModel.buildLanguage("nl")
+      val cache = LanguageModel.buildSentenceCache(1L << 20)
+      lang.setSentenceCache(cache)
+      val text = lang.splitParagraph(getTestText("/good_nl.txt")).maxBy(_.length)
+      val first = new Sentence(text)
+      val second = new Sentence(text)
+      val firstGraph = new Graph()
+      val secondGraph = new Graph()
+
+      first.mapTokens(lang, firstGraph) must beFalse
+      second.mapTokens(lang, secondGraph) must beTrue
+
+      cache.getHits mustEqual 1
+      second.md5_hash mustEqual first.md5_hash
+      second.token_list must be(first.token_list)
+      cache.get(first.md5_hash)(1) mustEqual lang.tagTokens(lang.tokenizeSentence(text))
+      describe(firstGraph) must not be empty
+      describe(secondGraph) mustEqual describe(firstGraph)
+    }
+  }
+
+  def describe(graph: Graph): Map[String, Set[String]] =
+    graph.toMap.map { case (key, node) => key -> node.edges.map(_.key).toSet }
+
+  def analyze(lang: LanguageModel, text: String): List[List[(String, String, String)]] =
+    lang.splitParagraph(text).toList.map { sentence =>
+      val tokens = lang.tokenizeSentence(sentence)
+      val tags = lang.tagTokens(tokens)
+      tokens.zip(tags).map { case (token, tag) => (token, tag, lang.stemToken(token)) }.toList
+    }
+
+  def getTestText(name: String): String =
+    scala.io.Source.fromInputStream(getClass.getResourceAsStream(name)).mkString
+}
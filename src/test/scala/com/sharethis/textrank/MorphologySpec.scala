@@ -0,0 +1,75 @@
+package com.sharethis.textrank
+
+import net.sf.extjwnl.data.POS
+import net.sf.extjwnl.dictionary.Dictionary
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+/**
+ * Morphology and LemmaFilter copy the suffix rules and tokenizing of
+ * the extjwnl morphological processor, so check them against it on
+ * the n-grams of the test documents.
+ */
+class MorphologySpec extends Specification {
+  sequential
+
+  lazy val dictionary = Dictionary.getDefaultResourceInstance()
+
+  lazy val queries: Seq[String] = {
+    val tokens = List("/good.txt", "/kill.txt").flatMap(name => getTestText(name).split("\\s+").filter(_.nonEmpty))
+    val ngrams = (1 to 3).flatMap(n => tokens.sliding(n).map(_.mkString(" ")))
+    (ngrams ++ ngrams.map(_.toLowerCase) ++ List("mice", "attorneys general", "x-rays", "geese", "better", "oxen")).distinct
+  }
+
+  "Morphology" should {
+
+    "Find the same base form as extjwnl, over the dictionary" in {
+      val morphology = new Morphology(new Morphology.Lexicon {
+        def isLemma(pos: POS, lemma: String): Boolean = dictionary.getIndexWord(pos, lemma) != null
+        def getExceptions(pos: POS, form: String): java.util.List[String] = {
+          val exc = dictionary.getException(pos, form)
+          if (exc == null) null else exc.getExceptions
+        }
+      }, 0)
+
+      val diffs = for {
+        q <- queries
+        pos <- LemmaFilter.POS_LIST
+        expected = baseForm(pos, q)
+        if morphology.lookupBaseForm(pos, q) != expected
+      } yield (pos, q, expected)
+
+      diffs must beEmpty
+    }
+  }
+
+  "LemmaFilter" should {
+
+    "Pass every text for which extjwnl finds a lemma" in {
+      val filter = LemmaFilter.build(dictionary, LemmaFilter.DEFAULT_FPP)
+
+      val misses = for {
+        q <- queries
+        pos <- LemmaFilter.POS_LIST
+        if baseForm(pos, q) != null
+        if !filter.mightHaveLemma(pos, q)
+      } yield (pos, q)
+
+      misses must beEmpty
+    }
+
+    "Also pass them within a memory budget" in {
+      val filter = LemmaFilter.build(dictionary, 64L * 1024L)
+
+      queries.forall(q => LemmaFilter.POS_LIST.forall(pos => baseForm(pos, q) == null || filter.mightHaveLemma(pos, q))) must beTrue
+    }
+  }
+
+  def baseForm(pos: POS, text: String): String = {
+    val iw = dictionary.getMorphologicalProcessor.lookupBaseForm(pos, text)
+    if (iw == null) null else Morphology.normalize(iw.getLemma)
+  }
+
+  def getTestText(name: String): String =
+    scala.io.Source.fromInputStream(getClass.getResourceAsStream(name)).mkString
+}
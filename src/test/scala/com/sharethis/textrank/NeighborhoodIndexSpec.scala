@@ -0,0 +1,76 @@
+package com.sharethis.textrank
+
+import java.io.{File, IOException, RandomAccessFile}
+import java.nio.file.Files
+import net.sf.extjwnl.data.POS
+import net.sf.extjwnl.dictionary.Dictionary
+import org.specs2.mutable.Specification
+
+class NeighborhoodIndexSpec extends Specification {
+  sequential
+
+  lazy val dictionary = Dictionary.getDefaultResourceInstance()
+
+  lazy val file: File = {
+    val f = File.createTempFile("neighborhoods", ".idx")
+    f.deleteOnExit()
+    NeighborhoodIndex.build(dictionary, f)
+    f
+  }
+
+  lazy val index = NeighborhoodIndex.open(file)
+
+  "NeighborhoodIndex" should {
+
+    "Read the same neighborhoods as the dictionary" in {
+      val fromDictionary = new WordNet()
+      val fromIndex = new WordNet(index)
+      fromDictionary.setCache(null)
+      fromIndex.setCache(null)
+
+      val tokens = getTestText("/good.txt").split("\\s+").filter(_.nonEmpty).toList
+      val queries = ((1 to 2).flatMap(n => tokens.sliding(n).map(_.mkString(" "))) ++ List("dogs", "mice", "geese", "better")).distinct
+
+      val diffs = for {
+        q <- queries
+        pos <- List(POS.NOUN, POS.ADJECTIVE)
+        if view(fromDictionary.getNeighborhood(pos, q)) != view(fromIndex.getNeighborhood(pos, q))
+      } yield (pos, q)
+
+      diffs must beEmpty
+      fromIndex.getNeighborhood(POS.NOUN, "mice").lemma mustEqual "mouse"
+    }
+
+    "Reject the parts of speech it does not cover" in {
+      new WordNet(index).getNeighborhood(POS.VERB, "running") must throwA[IllegalArgumentException]
+    }
+
+    "Refuse to open a file whose table does not fit its header" in {
+      val copy = File.createTempFile("neighborhoods", ".idx")
+      copy.deleteOnExit()
+      Files.copy(file.toPath, copy.toPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING)
+
+      val raf = new RandomAccessFile(copy, "rw")
+      raf.seek(8)
+      raf.writeInt(3)
+      raf.close()
+      NeighborhoodIndex.open(copy) must throwA[IOException]
+
+      val raf2 = new RandomAccessFile(copy, "rw")
+      raf2.seek(8)
+      raf2.writeInt(1 << 30)
+      raf2.close()
+      NeighborhoodIndex.open(copy) must throwA[IOException]
+    }
+
+    "Only link synsets for English" in {
+      new TextRank("nl", new WordNet(index)) must throwA[IllegalArgumentException]
+    }
+  }
+
+  def view(hood: Neighborhood): Option[(String, List[Long], List[List[Long]], List[List[List[Long]]])] =
+    Option(hood).map(h => (h.lemma, h.synsets.toList, h.hypernyms.map(_.toList).toList, h.siblings.map(_.map(_.toList).toList).toList))
+
+  def getTestText(name: String): String =
+    scala.io.Source.fromInputStream(getClass.getResourceAsStream(name)).mkString
+}
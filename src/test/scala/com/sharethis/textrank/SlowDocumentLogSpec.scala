@@ -0,0 +1,75 @@
+package com.sharethis.textrank
+
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.TimeoutException
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+class SlowDocumentLogSpec extends Specification {
+  sequential
+
+  "SlowDocumentLog" should {
+
+    "Keep only the most recent entries, keyed by content hash" in {
+      val log = new SlowDocumentLog(3, 0)
+      (0 until 5).foreach(i => log.offer("document " + i, metrics(i)))
+
+      log.size mustEqual 3
+      log.getEntries.map(_.hash).toList mustEqual (2 until 5).map(i => TextRank.contentHash("document " + i)).toList
+    }
+
+    "Skip runs faster than the threshold" in {
+      val log = new SlowDocumentLog(3, 1000)
+
+      log.offer("fast", metrics(1)) must beFalse
+      log.size mustEqual 0
+    }
+
+    "Keep no more spilled files than entries" in {
+      val dir = Files.createTempDirectory("slow-documents").toFile
+      val log = new SlowDocumentLog(2, 0, dir)
+      (0 until 5).foreach(i => log.offer("document " + i, metrics(i)))
+      log.flush(10000)
+
+      new File(dir, "text").list.length mustEqual 2
+      new File(dir, "meta").list.length mustEqual 2
+    }
+
+    "Write the pending spills on close, then keep entries in memory only" in {
+      val dir = Files.createTempDirectory("slow-documents").toFile
+      val log = new SlowDocumentLog(8, 0, dir)
+      val textRank = new TextRank("nl")
+      textRank.setSlowDocumentLog(log)
+      (0 until 5).foreach(i => log.offer("document " + i, metrics(i)))
+      textRank.shutdown()
+
+      new File(dir, "text").list.length mustEqual 5
+      log.offer("document 5", metrics(5)) must beTrue
+      log.size mustEqual 6
+      new File(dir, "text").list.length mustEqual 5
+    }
+
+    "Capture a document which misses its deadline" in {
+      val log = new SlowDocumentLog(4, 60000)
+      val textRank = new TextRank("nl", 1)
+      textRank.setSlowDocumentLog(log)
+      val text = scala.io.Source.fromInputStream(getClass.getResourceAsStream("/kill.txt")).mkString
+
+      try {
+        textRank.run(text) must throwA[TimeoutException]
+        log.size mustEqual 1
+        log.getEntries.get(0).timed_out must beTrue
+        log.getEntries.get(0).hash mustEqual TextRank.contentHash(text)
+      } finally {
+        textRank.shutdown()
+      }
+    }
+  }
+
+  def metrics(i: Int): RunMetrics = {
+    val m = new RunMetrics()
+    m.pass_nanos.put("pass1", 1000000L * i)
+    m
+  }
+}
@@ -0,0 +1,125 @@
+package com.sharethis.textrank
+
+import java.util.concurrent.{ExecutionException, RejectedExecutionException, TimeoutException, TimeUnit}
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+class StagedTextRankSpec extends Specification {
+  sequential
+
+  "StagedTextRank" should {
+
+    "Run the passes in order, to the same key phrases as a blocking run" in {
+      val textRank = new TextRank("nl")
+      val staged = new StagedTextRank(textRank, 1, 1, 1, 8)
+      val text = getTestText("/good_nl.txt")
+
+      try {
+        val blocking = textRank.run(text)
+        val run = staged.runAsync(text).get(60, TimeUnit.SECONDS)
+
+        run.getElapsedTimes.keySet.toList mustEqual blocking.getElapsedTimes.keySet.toList
+        view(run).map(_._1) mustEqual view(blocking).map(_._1)
+        view(run).zip(view(blocking)).map { case (a, b) => math.abs(a._2 - b._2) }.max must be_<(1.0e-9)
+        textRank.getMetrics.getDocuments mustEqual 2
+      } finally {
+        staged.shutdown()
+        textRank.shutdown()
+      }
+    }
+
+    "Fail documents rejected by a full tagging queue, and count them" in {
+      val textRank = new TextRank("nl")
+      val staged = new StagedTextRank(textRank, 1, 1, 1, 1)
+      val text = getTestText("/kill.txt")
+
+      try {
+        val futures = (0 until 10).map(_ => staged.runAsync(text))
+        val rejected = futures.count(f => f.isCompletedExceptionally && cause(f).isInstanceOf[RejectedExecutionException])
+
+        rejected must be_>(0)
+        textRank.getMetrics.getFailures mustEqual rejected
+        futures.foreach(_.cancel(true))
+        ok
+      } finally {
+        staged.shutdown()
+        textRank.shutdown()
+      }
+    }
+
+    "Time out a document past the deadline of the TextRank instance" in {
+      val textRank = new TextRank("nl", 1)
+      val staged = new StagedTextRank(textRank, 1, 1, 1, 8)
+
+      try {
+        staged.runAsync(getTestText("/kill.txt")).get(60, TimeUnit.SECONDS) must throwA[ExecutionException].like {
+          case e => e.getCause must beAnInstanceOf[TimeoutException]
+        }
+        textRank.getMetrics.getTimeouts mustEqual 1
+        textRank.getMetrics.getFailures mustEqual 0
+      } finally {
+        staged.shutdown()
+        textRank.shutdown()
+      }
+    }
+
+    "Stop a cancelled document without counting a failure" in {
+      val textRank = new TextRank("nl")
+      val staged = new StagedTextRank(textRank, 1, 1, 1, 8)
+
+      try {
+        val future = staged.runAsync(getTestText("/kill.txt"))
+        future.cancel(true)
+        val next = staged.runAsync(getTestText("/good_nl.txt")).get(60, TimeUnit.SECONDS)
+
+        future.isCancelled must beTrue
+        next.getKeyphrases.size must be_>(0)
+        textRank.getMetrics.getFailures mustEqual 0
+      } finally {
+        staged.shutdown()
+        textRank.shutdown()
+      }
+    }
+
+    "Clear only the interrupts it made, on the thread running a stage" in {
+      val textRank = new TextRank("nl")
+      val staged = new InterruptingStages(textRank)
+
+      try {
+        staged.interruptedAfter(own = true) must beFalse
+        // as under CallerRunsPolicy, when the submitting thread is
+        // interrupted while it runs the stage itself
+        staged.interruptedAfter(own = false) must beTrue
+      } finally {
+        Thread.interrupted()
+        staged.shutdown()
+        textRank.shutdown()
+      }
+    }
+  }
+
+  /**
+   * Runs one stage on the calling thread, which either the run itself
+   * or someone else interrupts during the pass.
+   */
+  class InterruptingStages(textRank: TextRank) extends StagedTextRank(textRank, 1, 1, 1, 8) {
+    def interruptedAfter(own: Boolean): Boolean = {
+      val staged = new StagedRun(textRank.buildRun("Een zin."), 60000L)
+
+      staged.stage(new StagedTextRank.Pass {
+        def apply(run: TextRankRun): Unit = if (own) staged.interrupt() else Thread.currentThread.interrupt()
+      }).run()
+
+      Thread.interrupted()
+    }
+  }
+
+  def cause(future: java.util.concurrent.CompletableFuture[_]): Throwable =
+    try { future.join(); null } catch { case e: java.util.concurrent.CompletionException => e.getCause }
+
+  def view(run: TextRankRun): List[(String, Double)] =
+    run.getKeyphrases.map(k => (k.getPhrase, k.getMetric)).toList.sorted
+
+  def getTestText(name: String): String =
+    scala.io.Source.fromInputStream(getClass.getResourceAsStream(name)).mkString
+}
@@ -0,0 +1,64 @@
+package com.sharethis.textrank
+
+import java.util.concurrent.{ExecutionException, RejectedExecutionException, TimeoutException, TimeUnit}
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+class TextRankBatchSpec extends Specification {
+  sequential
+
+  "TextRank.runAll" should {
+
+    "Complete with the runs in the order of the texts" in {
+      val textRank = new TextRank("nl", 60000, 2, 16)
+      val texts = List(getTestText("/good_nl.txt"), "De hond van de buren blaft. De kat van de buren slaapt.")
+
+      try {
+        val runs = textRank.runAll(texts).get(60, TimeUnit.SECONDS)
+
+        runs.size mustEqual 2
+        phrases(runs(0)) mustEqual phrases(textRank.run(texts(0)))
+        phrases(runs(1)) mustEqual phrases(textRank.run(texts(1)))
+      } finally {
+        textRank.shutdown()
+      }
+    }
+
+    "Fail on the first deadline, cancelling the rest of the batch" in {
+      val textRank = new TextRank("nl", 50, 1, 16)
+      val kill = getTestText("/kill.txt")
+
+      try {
+        textRank.runAll(List.fill(4)(kill)).get(60, TimeUnit.SECONDS) must throwA[ExecutionException].like {
+          case e => e.getCause must beAnInstanceOf[TimeoutException]
+        }
+        Thread.sleep(500)
+
+        textRank.getMetrics.getTimeouts mustEqual 1
+        textRank.getMetrics.getDocuments mustEqual 0
+      } finally {
+        textRank.shutdown()
+      }
+    }
+
+    "Reject a batch larger than the room in the queue up front" in {
+      val textRank = new TextRank("nl", 60000, 1, 2)
+
+      try {
+        textRank.runAll(List.fill(5)(getTestText("/good_nl.txt"))).get(60, TimeUnit.SECONDS) must throwA[ExecutionException].like {
+          case e => e.getCause must beAnInstanceOf[RejectedExecutionException]
+        }
+        Thread.sleep(200)
+
+        textRank.getMetrics.getDocuments mustEqual 0
+      } finally {
+        textRank.shutdown()
+      }
+    }
+  }
+
+  def phrases(run: TextRankRun): Set[String] = run.getKeyphrases.map(_.getPhrase).toSet
+
+  def getTestText(name: String): String =
+    scala.io.Source.fromInputStream(getClass.getResourceAsStream(name)).mkString
+}
@@ -0,0 +1,59 @@
+package com.sharethis.textrank
+
+import java.nio.file.Files
+import jdk.jfr.Recording
+import jdk.jfr.consumer.{RecordedEvent, RecordingFile}
+import org.specs2.mutable.Specification
+import collection.JavaConversions._
+
+class TextRankEventsSpec extends Specification {
+  sequential
+
+  "TextRank flight recorder events" should {
+
+    "Record one document event, and one pass event per pass" in {
+      val textRank = new TextRank("nl")
+      val text = getTestText("/good_nl.txt")
+      val recording = new Recording()
+      recording.enable(classOf[DocumentEvent])
+      recording.enable(classOf[PassEvent])
+      val file = Files.createTempFile("textrank", ".jfr")
+
+      try {
+        recording.start()
+        val run = textRank.run(text)
+        recording.stop()
+        recording.dump(file)
+
+        val events = RecordingFile.readAllEvents(file).toList
+        val documents = events.filter(_.getEventType.getName == "com.sharethis.textrank.Document")
+        val passes = events.filter(_.getEventType.getName == "com.sharethis.textrank.Pass")
+        val metrics = run.getMetrics
+
+        documents.size mustEqual 1
+        val document = documents.head
+        document.getInt("text_length") mustEqual text.length
+        document.getInt("sentences") mustEqual metrics.sentences
+        document.getInt("sentences") must be_>(0)
+        document.getInt("tokens") must be_>=(document.getInt("graph_nodes"))
+        document.getInt("graph_nodes") must be_>(0)
+        document.getInt("keyword_iterations") must be_>(0)
+        document.getDuration.isNegative must beFalse
+
+        passes.map(_.getString("pass")) mustEqual run.getElapsedTimes.keySet.toList
+        foreach(passes) { pass =>
+          pass.getInt("text_length") mustEqual text.length
+          pass.getInt("graph_nodes") must be_<=(document.getInt("graph_nodes"))
+          pass.getDuration.compareTo(document.getDuration) must be_<=(0)
+        }
+      } finally {
+        recording.close()
+        Files.deleteIfExists(file)
+        textRank.shutdown()
+      }
+    }
+  }
+
+  def getTestText(name: String): String =
+    scala.io.Source.fromInputStream(getClass.getResourceAsStream(name)).mkString
+}
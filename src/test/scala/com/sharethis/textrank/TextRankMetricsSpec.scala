@@ -0,0 +1,90 @@
+package com.sharethis.textrank
+
+import com.sharethis.common.{LruCache, StripedLruCache}
+import java.lang.management.ManagementFactory
+import javax.management.ObjectName
+import javax.management.openmbean.CompositeData
+import org.specs2.mutable.Specification
+
+class TextRankMetricsSpec extends Specification {
+  sequential
+
+  "TextRankMetrics" should {
+
+    "Aggregate the metrics of each run" in {
+      val metrics = new TextRankMetrics()
+      metrics.record(run(2, 3000000L, 10))
+      metrics.record(run(4, 1000000L, 30))
+      metrics.recordFailure()
+      metrics.recordTimeout()
+
+      metrics.getDocuments mustEqual 2
+      metrics.getFailures mustEqual 1
+      metrics.getTimeouts mustEqual 1
+      metrics.getSentences mustEqual 6
+      metrics.getTokens mustEqual 60
+      metrics.getMeanGraphNodes must beCloseTo(20.0, 1e-9)
+      metrics.getMeanPassMillis.get("pass1").doubleValue must beCloseTo(2.0, 1e-9)
+      metrics.getMeanTotalMillis must beCloseTo(4.0, 1e-9)
+      metrics.getMaxTotalMillis must beCloseTo(6.0, 1e-9)
+    }
+
+    "Start over after a reset" in {
+      val metrics = new TextRankMetrics()
+      metrics.record(run(2, 3000000L, 10))
+      metrics.reset()
+
+      metrics.getDocuments mustEqual 0
+      metrics.getSentences mustEqual 0
+      metrics.getMeanTotalMillis mustEqual 0.0
+    }
+
+    "Report each cache as a snapshot of its counts" in {
+      val metrics = new TextRankMetrics()
+      metrics.getSentenceCacheStats.getHits mustEqual 0
+
+      val cache = new StripedLruCache[String, Integer](100, 4)
+      metrics.setNodeKeyCache(cache)
+      cache.put("a", 1)
+      cache.get("a")
+      cache.get("b")
+
+      val stats = metrics.getNodeKeyCacheStats
+      stats.getHits mustEqual 1
+      stats.getMisses mustEqual 1
+      stats.getEntries mustEqual 1
+      stats.getHitRate must beCloseTo(0.5, 1e-9)
+    }
+
+    "Show each cache as one composite attribute over JMX" in {
+      val metrics = new TextRankMetrics()
+      val cache = LruCache.byEntries[String, Integer](10, 0)
+      metrics.setResultCache(cache)
+      cache.put("a", 1)
+      cache.get("a")
+
+      val server = ManagementFactory.getPlatformMBeanServer
+      val name = new ObjectName("com.sharethis.textrank:type=TextRankMetricsSpec")
+      server.registerMBean(metrics, name)
+
+      try {
+        val stats = server.getAttribute(name, "ResultCacheStats").asInstanceOf[CompositeData]
+        stats.get("hits") mustEqual 1L
+        stats.get("entries") mustEqual 1L
+        stats.get("hitRate") mustEqual 1.0
+      } finally {
+        server.unregisterMBean(name)
+      }
+    }
+  }
+
+  def run(sentences: Int, nanos: Long, nodes: Int): RunMetrics = {
+    val m = new RunMetrics()
+    m.pass_nanos.put("pass1", nanos)
+    m.pass_nanos.put("pass2", nanos)
+    m.sentences = sentences
+    m.tokens = 10 * sentences
+    m.graph_nodes = nodes
+    m
+  }
+}
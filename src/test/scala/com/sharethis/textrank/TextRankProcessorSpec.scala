@@ -0,0 +1,131 @@
+package com.sharethis.textrank
+
+import java.util.concurrent.{Flow, LinkedBlockingQueue, TimeUnit}
+import org.specs2.mutable.Specification
+
+class TextRankProcessorSpec extends Specification {
+  sequential
+
+  val documents = (0 until 6).map(i => s"De hond $i van de buren blaft. De kat $i van de buren slaapt in de zon.")
+
+  "TextRankProcessor" should {
+
+    "Request from upstream no more than downstream asked for, nor max in flight" in {
+      withTextRank { textRank =>
+        val upstream = new TestPublisher(documents, None)
+        val downstream = new TestSubscriber()
+        textRank.stream(upstream, 4).subscribe(downstream)
+
+        downstream.subscription.request(2)
+        downstream.next() must beAnInstanceOf[TextRankRun]
+        downstream.next() must beAnInstanceOf[TextRankRun]
+        Thread.sleep(200)
+        upstream.requested mustEqual 2
+
+        downstream.subscription.request(100)
+        (0 until 4).foreach(_ => downstream.next() must beAnInstanceOf[TextRankRun])
+        downstream.next() mustEqual "complete"
+        upstream.requested must be_<=(2L + 4L)
+      }
+    }
+
+    "Deliver the documents in flight before passing on an upstream error" in {
+      withTextRank { textRank =>
+        val upstream = new TestPublisher(documents.take(2), Some(new RuntimeException("crawler down")))
+        val downstream = new TestSubscriber()
+        textRank.stream(upstream, 4).subscribe(downstream)
+
+        downstream.subscription.request(10)
+        downstream.next() must beAnInstanceOf[TextRankRun]
+        downstream.next() must beAnInstanceOf[TextRankRun]
+        downstream.next() must beAnInstanceOf[RuntimeException]
+      }
+    }
+
+    "Take on no more documents once downstream cancels" in {
+      withTextRank { textRank =>
+        val processor = new TextRankProcessor(textRank, 4)
+        val upstream = new TestPublisher(documents, None)
+        val downstream = new TestSubscriber()
+        upstream.subscribe(processor)
+        processor.subscribe(downstream)
+
+        downstream.subscription.request(1)
+        downstream.next() must beAnInstanceOf[TextRankRun]
+        downstream.subscription.cancel()
+        Thread.sleep(200)
+        val documentsBefore = textRank.getMetrics.getDocuments
+
+        processor.onNext(documents(5))
+        Thread.sleep(500)
+
+        upstream.cancelled must beTrue
+        textRank.getMetrics.getDocuments mustEqual documentsBefore
+        downstream.events.isEmpty must beTrue
+      }
+    }
+
+    "Reject a second subscriber" in {
+      withTextRank { textRank =>
+        val processor = textRank.stream(new TestPublisher(documents, None), 4)
+        processor.subscribe(new TestSubscriber())
+        val second = new TestSubscriber()
+        processor.subscribe(second)
+
+        second.next() must beAnInstanceOf[IllegalStateException]
+      }
+    }
+  }
+
+  def withTextRank[T](f: TextRank => T): T = {
+    val textRank = new TextRank("nl", 60000, 2, 16)
+    try f(textRank) finally textRank.shutdown()
+  }
+
+  /**
+   * Publishes the given documents as requested, then completes or
+   * fails, recording the demand it saw.
+   */
+  class TestPublisher(docs: Seq[String], error: Option[Throwable]) extends Flow.Publisher[String] {
+    @volatile var requested = 0L
+    @volatile var cancelled = false
+    private var sent = 0
+    private var finished = false
+
+    def subscribe(subscriber: Flow.Subscriber[_ >: String]): Unit = {
+      subscriber.onSubscribe(new Flow.Subscription {
+        def request(n: Long): Unit = TestPublisher.this.synchronized {
+          requested += n
+          while (!cancelled && sent < docs.size && sent < requested) {
+            sent += 1
+            subscriber.onNext(docs(sent - 1))
+          }
+          if (!cancelled && !finished && sent == docs.size) {
+            finished = true
+            error match {
+              case Some(e) => subscriber.onError(e)
+              case None => subscriber.onComplete()
+            }
+          }
+        }
+
+        def cancel(): Unit = cancelled = true
+      })
+    }
+  }
+
+  /**
+   * Records each signal, with "complete" for completion.
+   */
+  class TestSubscriber extends Flow.Subscriber[TextRankRun] {
+    val events = new LinkedBlockingQueue[AnyRef]()
+    @volatile var subscription: Flow.Subscription = null
+
+    def onSubscribe(s: Flow.Subscription): Unit = subscription = s
+    def onNext(run: TextRankRun): Unit = events.add(run)
+    def onError(e: Throwable): Unit = events.add(e)
+    def onComplete(): Unit = events.add("complete")
+
+    def next(): AnyRef = events.poll(60, TimeUnit.SECONDS)
+  }
+}
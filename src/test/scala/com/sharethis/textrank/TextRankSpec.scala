@@ -47,5 +47,13 @@ class TextRankSpec extends Specification {
     "Not contain any keyphrases that are just punctuation" in {
       keyphrases.count(_.getPhrase == "|") mustEqual 0
     }
+
+    "Reject a top-k stability check with no sweeps, when set" in {
+      textRank.setTopKStability(10, 0) must throwA[IllegalArgumentException]
+      textRank.setTopKStability(-1, 3) must throwA[IllegalArgumentException]
+      textRank.setTopKStability(0, 0)
+      textRank.setTopKStability(10, 2)
+      ok
+    }
   }
 }
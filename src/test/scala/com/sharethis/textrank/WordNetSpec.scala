@@ -0,0 +1,74 @@
+package com.sharethis.textrank
+
+import net.sf.extjwnl.data.POS
+import org.specs2.mutable.Specification
+
+class WordNetSpec extends Specification {
+  sequential
+
+  /**
+   * Counts the lookups which get past the cache.
+   */
+  class CountingWordNet extends WordNet {
+    var lookups = 0
+
+    override protected def lookupNeighborhood(pos: POS, derivation: String): Neighborhood = {
+      lookups += 1
+      super.lookupNeighborhood(pos, derivation)
+    }
+  }
+
+  "WordNet" should {
+
+    "Look up a hit only once, and return the cached neighborhood" in {
+      val wordNet = new CountingWordNet()
+      val first = wordNet.getNeighborhood(POS.NOUN, "dogs")
+      val second = wordNet.getNeighborhood(POS.NOUN, "dogs")
+
+      first must not(beNull)
+      second must be(first)
+      wordNet.lookups mustEqual 1
+    }
+
+    "Look up a miss only once, and keep returning null" in {
+      val wordNet = new CountingWordNet()
+
+      wordNet.getNeighborhood(POS.NOUN, "qwxzy plorf") must beNull
+      wordNet.getNeighborhood(POS.NOUN, "qwxzy plorf") must beNull
+      wordNet.lookups mustEqual 1
+    }
+
+    "Share hits and misses with another instance through a shared cache" in {
+      val first = new CountingWordNet()
+      val second = new CountingWordNet()
+      second.setCache(first.getCache)
+
+      first.getNeighborhood(POS.NOUN, "dogs")
+      first.getNeighborhood(POS.NOUN, "qwxzy plorf")
+      second.getNeighborhood(POS.NOUN, "dogs") must not(beNull)
+      second.getNeighborhood(POS.NOUN, "qwxzy plorf") must beNull
+      second.lookups mustEqual 0
+    }
+
+    "Look up every time without a cache" in {
+      val wordNet = new CountingWordNet()
+      wordNet.setCache(null)
+
+      wordNet.getNeighborhood(POS.NOUN, "dogs") must not(beNull)
+      wordNet.getNeighborhood(POS.NOUN, "dogs") must not(beNull)
+      wordNet.getNeighborhood(POS.NOUN, "qwxzy plorf") must beNull
+      wordNet.lookups mustEqual 3
+    }
+  }
+
+  "SynsetLink" should {
+
+    "Load the synset of an offset back, for callers from before" in {
+      val hood = new WordNet().getNeighborhood(POS.NOUN, "dogs")
+      val link = new SynsetLink("x", hood.synsets(0), hood.pos, hood.lemma, null, SynsetLink.MyRelation.SYNONYM, 1)
+
+      link.getSynset.getOffset mustEqual hood.synsets(0)
+      link.getSynset.getWords.get(0).getLemma mustEqual "dog"
+    }
+  }
+}